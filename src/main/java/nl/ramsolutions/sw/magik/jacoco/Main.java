@@ -1,6 +1,8 @@
 package nl.ramsolutions.sw.magik.jacoco;
 
+import nl.ramsolutions.sw.magik.jacoco.generators.BaseReportGenerator;
 import nl.ramsolutions.sw.magik.jacoco.generators.CoberturaXmlReportGenerator;
+import nl.ramsolutions.sw.magik.jacoco.generators.ExecutionDataFiles;
 import nl.ramsolutions.sw.magik.jacoco.generators.HtmlReportGenerator;
 import nl.ramsolutions.sw.magik.jacoco.generators.JacocoXmlReportGenerator;
 import nl.ramsolutions.sw.magik.jacoco.generators.SonarXmlReportGenerator;
@@ -47,10 +49,9 @@ public final class Main {
         .build();
     private static final Option OPTION_JACOCO_FILE = Option.builder()
         .longOpt("jacoco-file")
-        .desc("Path to jacoco.exec")
-        .hasArg()
+        .desc("Path(s) to jacoco.exec, or glob pattern(s), merged when multiple")
+        .numberOfArgs(Option.UNLIMITED_VALUES)
         .required()
-        .type(PatternOptionBuilder.FILE_VALUE)
         .build();
     private static final Option OPTION_DISCARD_EXECUTABLE = Option.builder()
         .longOpt("discard-executable")
@@ -84,6 +85,30 @@ public final class Main {
         .hasArg()
         .type(PatternOptionBuilder.FILE_VALUE)
         .build();
+    private static final Option OPTION_THREADS = Option.builder()
+        .longOpt("threads")
+        .desc("Number of threads to use, defaults to the number of available processors")
+        .hasArg()
+        .type(PatternOptionBuilder.NUMBER_VALUE)
+        .build();
+    private static final Option OPTION_CACHE_PATH = Option.builder()
+        .longOpt("cache-path")
+        .desc("Directory to cache analyzed libs in, to speed up subsequent runs")
+        .hasArg()
+        .type(PatternOptionBuilder.FILE_VALUE)
+        .build();
+    private static final Option OPTION_TOUCHED_ONLY = Option.builder()
+        .longOpt("touched-only")
+        .desc("Only analyze classes touched by the execution data")
+        .build();
+    private static final Option OPTION_STREAMING = Option.builder()
+        .longOpt("streaming")
+        .desc("Convert coverage while analyzing classes, instead of afterwards")
+        .build();
+    private static final Option OPTION_LAZY_CONVERSION = Option.builder()
+        .longOpt("lazy-conversion")
+        .desc("Convert coverage one package at a time while writing the report, instead of all up front")
+        .build();
     private static final Option OPTION_BUNDLE_NAME = Option.builder()
         .longOpt("bundle-name")
         .desc("Name of the bundle, defaults to 'Smallworld product'")
@@ -103,6 +128,11 @@ public final class Main {
         OPTIONS.addOption(OPTION_JACOCO_XML);
         OPTIONS.addOption(OPTION_SONAR_XML);
         OPTIONS.addOption(OPTION_COBERTURA_XML);
+        OPTIONS.addOption(OPTION_THREADS);
+        OPTIONS.addOption(OPTION_CACHE_PATH);
+        OPTIONS.addOption(OPTION_TOUCHED_ONLY);
+        OPTIONS.addOption(OPTION_STREAMING);
+        OPTIONS.addOption(OPTION_LAZY_CONVERSION);
         OPTIONS.addOption(OPTION_BUNDLE_NAME);
     }
 
@@ -164,58 +194,70 @@ public final class Main {
                 .map(Path::of)
                 .collect(Collectors.toList())
             : Collections.emptyList();
-        final File executionDataFile = (File) commandLine.getParsedOptionValue(OPTION_JACOCO_FILE);
+        final List<File> executionDataFiles =
+            ExecutionDataFiles.resolve(List.of(commandLine.getOptionValues(OPTION_JACOCO_FILE)));
         final boolean discardExecutable = commandLine.hasOption(OPTION_DISCARD_EXECUTABLE);
         final boolean discardNonMagik = commandLine.hasOption(OPTION_DISCARD_NON_MAGIK);
         final String bundleName = commandLine.hasOption(OPTION_BUNDLE_NAME)
             ? commandLine.getOptionValue(OPTION_BUNDLE_NAME)
             : DEFAULT_BUNDLE_NAME;
 
+        final int threads = commandLine.hasOption(OPTION_THREADS)
+            ? ((Number) commandLine.getParsedOptionValue(OPTION_THREADS)).intValue()
+            : Runtime.getRuntime().availableProcessors();
+        final Path cachePath = commandLine.hasOption(OPTION_CACHE_PATH)
+            ? Path.of(commandLine.getOptionValue(OPTION_CACHE_PATH))
+            : null;
+
+        final BaseReportGenerator reportGenerator;
         if (commandLine.hasOption(OPTION_HTML)) {
             final File outputDir = (File) commandLine.getParsedOptionValue(OPTION_HTML);
-            final HtmlReportGenerator htmlReportGenerator = new HtmlReportGenerator(
+            reportGenerator = new HtmlReportGenerator(
                 productPaths,
                 sourcePaths,
-                executionDataFile,
+                executionDataFiles,
                 outputDir,
                 discardExecutable,
                 discardNonMagik,
                 bundleName);
-            htmlReportGenerator.run();
         } else if (commandLine.hasOption(OPTION_JACOCO_XML)) {
             final File outputFile = (File) commandLine.getParsedOptionValue(OPTION_JACOCO_XML);
-            final JacocoXmlReportGenerator xmlReportGenerator = new JacocoXmlReportGenerator(
+            reportGenerator = new JacocoXmlReportGenerator(
                 productPaths,
                 sourcePaths,
-                executionDataFile,
+                executionDataFiles,
                 outputFile,
                 discardExecutable,
                 discardNonMagik,
                 bundleName);
-            xmlReportGenerator.run();
         } else if (commandLine.hasOption(OPTION_SONAR_XML)) {
             final File outputFile = (File) commandLine.getParsedOptionValue(OPTION_SONAR_XML);
-            final SonarXmlReportGenerator sonarXmlReportGenerator = new SonarXmlReportGenerator(
+            reportGenerator = new SonarXmlReportGenerator(
                 productPaths,
                 sourcePaths,
-                executionDataFile,
+                executionDataFiles,
                 outputFile,
                 discardExecutable,
                 discardNonMagik,
                 bundleName);
-            sonarXmlReportGenerator.run();
-        } else if (commandLine.hasOption(OPTION_COBERTURA_XML)) {
+        } else {
             final File outputFile = (File) commandLine.getParsedOptionValue(OPTION_COBERTURA_XML);
-            final CoberturaXmlReportGenerator coberturaXmlReportGenerator = new CoberturaXmlReportGenerator(
+            reportGenerator = new CoberturaXmlReportGenerator(
                 productPaths,
                 sourcePaths,
-                executionDataFile,
+                executionDataFiles,
                 outputFile,
                 discardExecutable,
                 discardNonMagik,
                 bundleName);
-            coberturaXmlReportGenerator.run();
         }
+
+        reportGenerator.setThreads(threads);
+        reportGenerator.setCachePath(cachePath);
+        reportGenerator.setTouchedOnly(commandLine.hasOption(OPTION_TOUCHED_ONLY));
+        reportGenerator.setStreaming(commandLine.hasOption(OPTION_STREAMING));
+        reportGenerator.setLazyConversion(commandLine.hasOption(OPTION_LAZY_CONVERSION));
+        reportGenerator.run();
     }
 
 }
@@ -0,0 +1,58 @@
+package nl.ramsolutions.sw.magik.jacoco.conversion;
+
+import org.jacoco.core.analysis.IClassCoverage;
+
+import javax.annotation.CheckForNull;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Index of the {@link IClassCoverage}s of a package, built once per package.
+ *
+ * <p>
+ * Replaces scanning all classes of a package for each lookup, which is quadratic in the number of classes.
+ * </p>
+ */
+final class ClassCoverageIndex {
+
+    private final Map<String, IClassCoverage> classCoveragesByName = new HashMap<>();
+    private final Map<String, IClassCoverage> classCoveragesBySourceFileName = new HashMap<>();
+
+    /**
+     * Constructor.
+     * @param classCoverages Class coverages to index.
+     */
+    ClassCoverageIndex(final Collection<IClassCoverage> classCoverages) {
+        for (final IClassCoverage classCoverage : classCoverages) {
+            this.classCoveragesByName.putIfAbsent(classCoverage.getName(), classCoverage);
+
+            final String sourceFileName = classCoverage.getSourceFileName();
+            if (sourceFileName != null) {
+                this.classCoveragesBySourceFileName.putIfAbsent(sourceFileName, classCoverage);
+            }
+        }
+    }
+
+    /**
+     * Get a {@link IClassCoverage} by its name.
+     * @param className Name of class.
+     * @return {@link IClassCoverage}, if found.
+     */
+    @CheckForNull
+    IClassCoverage getClassCoverage(final String className) {
+        return this.classCoveragesByName.get(className);
+    }
+
+    /**
+     * Get the first {@link IClassCoverage} originating from a source file.
+     * @param sourceFileName Name of source file.
+     * @return {@link IClassCoverage}, if found.
+     */
+    @CheckForNull
+    IClassCoverage getClassCoverageBySourceFileName(final String sourceFileName) {
+        return this.classCoveragesBySourceFileName.get(sourceFileName);
+    }
+
+}
@@ -0,0 +1,63 @@
+package nl.ramsolutions.sw.magik.jacoco.conversion;
+
+import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5ClassInfo;
+import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5LibAnalyzer;
+import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5MethodInfo;
+
+import javax.annotation.CheckForNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+
+/**
+ * Resolves Magik method names from a single primary class and its subsidiary class.
+ *
+ * <p>
+ * Looks up the Java class/method name in the name mappings of the {@code execute()} method of the primary class, and
+ * of the procs of the subsidiary class, as they are. Nothing is copied or merged. The precedence is the same as that of
+ * {@link Sw5LibAnalyzer#getMagikMethodName(String, String)}: subsidiary procs, then the procs of the {@code execute()}
+ * method, then its methods.
+ * </p>
+ */
+final class ClassPairMethodNameResolver implements BinaryOperator<String> {
+
+    private final List<Map<String, String>> nameMappings = new ArrayList<>();
+
+    /**
+     * Constructor.
+     * @param primaryClass Primary class.
+     * @param subsidiaryClass Subsidiary class, if any.
+     */
+    ClassPairMethodNameResolver(final Sw5ClassInfo primaryClass, @CheckForNull final Sw5ClassInfo subsidiaryClass) {
+        // In order of precedence, the first mapping containing a name wins.
+        if (subsidiaryClass != null) {
+            subsidiaryClass.getMethods().forEach(methodInfo -> this.nameMappings.add(methodInfo.getProcNames()));
+        }
+        final Sw5MethodInfo executeMethod = primaryClass.getExecuteMethod();
+        this.nameMappings.add(executeMethod.getProcNames());
+        this.nameMappings.add(executeMethod.getMethodNames());
+    }
+
+    /**
+     * Get the Magik method name for a Java class/method name.
+     * @param javaClassName Name of Java class.
+     * @param javaMethodName Name of Java method.
+     * @return Magik method name.
+     */
+    @Override
+    public String apply(final String javaClassName, final String javaMethodName) {
+        final String key = Sw5LibAnalyzer.keyForClassMethodName(javaClassName, javaMethodName);
+        for (final Map<String, String> nameMapping : this.nameMappings) {
+            final String magikName = nameMapping.get(key);
+            if (magikName != null) {
+                return magikName;
+            }
+        }
+
+        final String msg = "Could not find mapped method, key: " + key;
+        throw new IllegalStateException(msg);
+    }
+
+}
@@ -0,0 +1,140 @@
+package nl.ramsolutions.sw.magik.jacoco.conversion;
+
+import org.jacoco.core.analysis.ICounter;
+import org.jacoco.core.analysis.ILine;
+import org.jacoco.core.analysis.ISourceNode;
+import org.jacoco.core.internal.analysis.CounterImpl;
+import org.jacoco.core.internal.analysis.LineImpl;
+
+/**
+ * Line coverage, stored as a primitive array of missed/covered instructions and branches, indexed on line number.
+ *
+ * <p>
+ * Merging two {@link CompactLineCoverage}s is plain array addition, without creating any {@link ILine} objects.
+ * {@link ILine}s are only created when requested.
+ * </p>
+ */
+final class CompactLineCoverage {
+
+    private static final int INSTRUCTIONS_MISSED = 0;
+    private static final int INSTRUCTIONS_COVERED = 1;
+    private static final int BRANCHES_MISSED = 2;
+    private static final int BRANCHES_COVERED = 3;
+    private static final int STRIDE = 4;
+
+    private int offset = ISourceNode.UNKNOWN_LINE;
+    private int[] counts = new int[0];
+
+    /**
+     * Get the first line.
+     * @return First line, or {@link ISourceNode#UNKNOWN_LINE} if no lines.
+     */
+    int getFirstLine() {
+        return this.offset;
+    }
+
+    /**
+     * Get the last line.
+     * @return Last line, or {@link ISourceNode#UNKNOWN_LINE} if no lines.
+     */
+    int getLastLine() {
+        if (this.counts.length == 0) {
+            return ISourceNode.UNKNOWN_LINE;
+        }
+
+        return this.offset + this.counts.length / STRIDE - 1;
+    }
+
+    /**
+     * Get the coverage of a line.
+     * @param nr Line number.
+     * @return Coverage of line.
+     */
+    ILine getLine(final int nr) {
+        final int index = (nr - this.offset) * STRIDE;
+        if (nr < this.offset
+            || index >= this.counts.length) {
+            return LineImpl.EMPTY;
+        }
+
+        final CounterImpl instructions = CounterImpl.getInstance(
+            this.counts[index + INSTRUCTIONS_MISSED],
+            this.counts[index + INSTRUCTIONS_COVERED]);
+        final CounterImpl branches = CounterImpl.getInstance(
+            this.counts[index + BRANCHES_MISSED],
+            this.counts[index + BRANCHES_COVERED]);
+        return LineImpl.EMPTY.increment(instructions, branches);
+    }
+
+    /**
+     * Get the line counter, derived from the instructions per line.
+     * @return Line counter.
+     */
+    CounterImpl getLineCounter() {
+        int missed = 0;
+        int covered = 0;
+        for (int index = 0; index < this.counts.length; index += STRIDE) {
+            if (this.counts[index + INSTRUCTIONS_COVERED] > 0) {
+                covered++;
+            } else if (this.counts[index + INSTRUCTIONS_MISSED] > 0) {
+                missed++;
+            }
+        }
+        return CounterImpl.getInstance(missed, covered);
+    }
+
+    /**
+     * Add the lines of another {@link CompactLineCoverage}, by array addition.
+     * @param lineCoverage Lines to add.
+     */
+    void increment(final CompactLineCoverage lineCoverage) {
+        if (lineCoverage.counts.length == 0) {
+            return;
+        }
+
+        this.ensureCapacity(lineCoverage.getFirstLine(), lineCoverage.getLastLine());
+        final int start = (lineCoverage.offset - this.offset) * STRIDE;
+        for (int i = 0; i < lineCoverage.counts.length; ++i) {
+            this.counts[start + i] += lineCoverage.counts[i];
+        }
+    }
+
+    /**
+     * Add a single line. Capacity must have been ensured.
+     * @param nr Line number.
+     * @param line Line to add.
+     */
+    void increment(final int nr, final ILine line) {
+        final int index = (nr - this.offset) * STRIDE;
+        final ICounter instructions = line.getInstructionCounter();
+        final ICounter branches = line.getBranchCounter();
+        this.counts[index + INSTRUCTIONS_MISSED] += instructions.getMissedCount();
+        this.counts[index + INSTRUCTIONS_COVERED] += instructions.getCoveredCount();
+        this.counts[index + BRANCHES_MISSED] += branches.getMissedCount();
+        this.counts[index + BRANCHES_COVERED] += branches.getCoveredCount();
+    }
+
+    /**
+     * Ensure the lines from {@code firstLine} to {@code lastLine} can be stored.
+     * @param firstLine First line.
+     * @param lastLine Last line.
+     */
+    void ensureCapacity(final int firstLine, final int lastLine) {
+        if (this.counts.length == 0) {
+            this.offset = firstLine;
+        }
+
+        final int newFirstLine = Math.min(this.offset, firstLine);
+        final int newLastLine = Math.max(this.getLastLine(), lastLine);
+        if (newFirstLine == this.offset
+            && newLastLine == this.getLastLine()) {
+            return;
+        }
+
+        final int[] newCounts = new int[(newLastLine - newFirstLine + 1) * STRIDE];
+        System.arraycopy(this.counts, 0, newCounts, (this.offset - newFirstLine) * STRIDE, this.counts.length);
+        this.counts = newCounts;
+        this.offset = newFirstLine;
+    }
+
+}
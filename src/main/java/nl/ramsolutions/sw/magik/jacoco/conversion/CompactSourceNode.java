@@ -0,0 +1,86 @@
+package nl.ramsolutions.sw.magik.jacoco.conversion;
+
+import org.jacoco.core.analysis.CoverageNodeImpl;
+import org.jacoco.core.analysis.ICounter;
+import org.jacoco.core.analysis.ILine;
+import org.jacoco.core.analysis.ISourceNode;
+
+/**
+ * {@link ISourceNode} of which the lines are stored in a {@link CompactLineCoverage}.
+ *
+ * <p>
+ * Used for the merged methods and converted classes, which are built by incrementing many source nodes.
+ * </p>
+ */
+abstract class CompactSourceNode extends CoverageNodeImpl implements ISourceNode {
+
+    private final CompactLineCoverage lineCoverage = new CompactLineCoverage();
+    private boolean lineCounterValid = true;
+
+    /**
+     * Constructor.
+     * @param elementType Type of element.
+     * @param name Name of element.
+     */
+    CompactSourceNode(final ElementType elementType, final String name) {
+        super(elementType, name);
+    }
+
+    /**
+     * Increment the counters and lines with the values of a child node.
+     * @param child Child node.
+     */
+    public void increment(final ISourceNode child) {
+        this.instructionCounter = this.instructionCounter.increment(child.getInstructionCounter());
+        this.branchCounter = this.branchCounter.increment(child.getBranchCounter());
+        this.complexityCounter = this.complexityCounter.increment(child.getComplexityCounter());
+        this.methodCounter = this.methodCounter.increment(child.getMethodCounter());
+        this.classCounter = this.classCounter.increment(child.getClassCounter());
+        this.lineCounterValid = false;
+        if (child instanceof CompactSourceNode) {
+            // Bulk merge.
+            this.lineCoverage.increment(((CompactSourceNode) child).lineCoverage);
+        } else {
+            this.incrementLines(child);
+        }
+    }
+
+    private void incrementLines(final ISourceNode child) {
+        final int firstLine = child.getFirstLine();
+        if (firstLine == ISourceNode.UNKNOWN_LINE) {
+            return;
+        }
+
+        final int lastLine = child.getLastLine();
+        this.lineCoverage.ensureCapacity(firstLine, lastLine);
+        for (int nr = firstLine; nr <= lastLine; ++nr) {
+            this.lineCoverage.increment(nr, child.getLine(nr));
+        }
+    }
+
+    @Override
+    public ICounter getLineCounter() {
+        // Derived from the lines lazily, as it cannot be incremented.
+        if (!this.lineCounterValid) {
+            this.lineCounter = this.lineCoverage.getLineCounter();
+            this.lineCounterValid = true;
+        }
+        return this.lineCounter;
+    }
+
+    @Override
+    public int getFirstLine() {
+        return this.lineCoverage.getFirstLine();
+    }
+
+    @Override
+    public int getLastLine() {
+        return this.lineCoverage.getLastLine();
+    }
+
+    @Override
+    public ILine getLine(final int nr) {
+        return this.lineCoverage.getLine(nr);
+    }
+
+}
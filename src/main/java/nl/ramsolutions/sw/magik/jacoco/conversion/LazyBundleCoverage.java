@@ -0,0 +1,112 @@
+package nl.ramsolutions.sw.magik.jacoco.conversion;
+
+import org.jacoco.core.analysis.CoverageNodeImpl;
+import org.jacoco.core.analysis.IBundleCoverage;
+import org.jacoco.core.analysis.ICounter;
+import org.jacoco.core.analysis.IPackageCoverage;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.function.UnaryOperator;
+
+/**
+ * Lazy view of a converted {@link IBundleCoverage}.
+ *
+ * <p>
+ * Each package is converted when it is reached while iterating {@link #getPackages()}, and is not retained afterwards.
+ * A report visitor walking the packages once, in order, therefore only holds a single converted package at a time.
+ * </p>
+ *
+ * <p>
+ * The counters of the bundle require all packages to be converted. They are only determined when first requested,
+ * by a separate pass over the packages.
+ * </p>
+ */
+final class LazyBundleCoverage extends CoverageNodeImpl implements IBundleCoverage {
+
+    private final Collection<IPackageCoverage> packageCoverages;
+    private final UnaryOperator<IPackageCoverage> packageCoverageConverter;
+    private boolean counted;
+
+    /**
+     * Constructor.
+     * @param name Name of bundle.
+     * @param packageCoverages Packages to convert, without the discarded packages.
+     * @param packageCoverageConverter Converter of a package.
+     */
+    LazyBundleCoverage(
+            final String name,
+            final Collection<IPackageCoverage> packageCoverages,
+            final UnaryOperator<IPackageCoverage> packageCoverageConverter) {
+        super(ElementType.BUNDLE, name);
+        this.packageCoverages = packageCoverages;
+        this.packageCoverageConverter = packageCoverageConverter;
+    }
+
+    @Override
+    public Collection<IPackageCoverage> getPackages() {
+        return new AbstractCollection<>() {
+
+            @Override
+            public Iterator<IPackageCoverage> iterator() {
+                return LazyBundleCoverage.this.packageCoverages.stream()
+                    .map(LazyBundleCoverage.this.packageCoverageConverter)
+                    .iterator();
+            }
+
+            @Override
+            public int size() {
+                // Each package converts to a single package, no need to convert them.
+                return LazyBundleCoverage.this.packageCoverages.size();
+            }
+
+        };
+    }
+
+    private synchronized void count() {
+        if (this.counted) {
+            return;
+        }
+
+        this.increment(this.getPackages());
+        this.counted = true;
+    }
+
+    @Override
+    public ICounter getInstructionCounter() {
+        this.count();
+        return super.getInstructionCounter();
+    }
+
+    @Override
+    public ICounter getBranchCounter() {
+        this.count();
+        return super.getBranchCounter();
+    }
+
+    @Override
+    public ICounter getLineCounter() {
+        this.count();
+        return super.getLineCounter();
+    }
+
+    @Override
+    public ICounter getComplexityCounter() {
+        this.count();
+        return super.getComplexityCounter();
+    }
+
+    @Override
+    public ICounter getMethodCounter() {
+        this.count();
+        return super.getMethodCounter();
+    }
+
+    @Override
+    public ICounter getClassCounter() {
+        this.count();
+        return super.getClassCounter();
+    }
+
+}
@@ -1,32 +1,26 @@
 package nl.ramsolutions.sw.magik.jacoco.conversion;
 
-import nl.ramsolutions.sw.magik.jacoco.helpers.ClassNodeHelper;
 import nl.ramsolutions.sw.magik.jacoco.helpers.SmallworldProducts;
+import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5ClassInfo;
 import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5LibAnalyzer;
 import org.jacoco.core.analysis.IBundleCoverage;
 import org.jacoco.core.analysis.IClassCoverage;
-import org.jacoco.core.analysis.ICounter;
-import org.jacoco.core.analysis.ILine;
 import org.jacoco.core.analysis.IMethodCoverage;
 import org.jacoco.core.analysis.IPackageCoverage;
 import org.jacoco.core.analysis.ISourceFileCoverage;
 import org.jacoco.core.internal.analysis.BundleCoverageImpl;
-import org.jacoco.core.internal.analysis.ClassCoverageImpl;
-import org.jacoco.core.internal.analysis.MethodCoverageImpl;
 import org.jacoco.core.internal.analysis.PackageCoverageImpl;
 import org.jacoco.core.internal.analysis.SourceFileCoverageImpl;
-import org.objectweb.asm.tree.ClassNode;
 
 import javax.annotation.CheckForNull;
 
-import java.io.IOException;
-import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Convert native JaCoCo/JVM coverage data to Magik coverage data.
@@ -37,19 +31,27 @@ import java.util.stream.Collectors;
  * - Methods are renamed to Magik-names, where applicable.
  * - Executable classes are discarded, when enabled.
  * </p>
+ *
+ * <p>
+ * Packages are converted in parallel on a fork/join pool, as are the classes of large packages. The order of the
+ * packages and classes is the same as in the original {@link IBundleCoverage}.
+ * </p>
+ *
+ * <p>
+ * Alternatively, the conversion can be done lazily, see {@link #convertLazily()}.
+ * </p>
  */
 public class MagikBundleCoverageConverter {
 
-    private static final Set<String> PRIMARY_CLASS_METHODS = Set.of(
-        "<init>",
-        "preload",
-        "execute");
+    private static final int PARALLEL_CLASS_THRESHOLD = 256;
 
     private final Sw5LibAnalyzer libAnalyzer;
     private final IBundleCoverage bundleCoverage;
     private final boolean discardExecutable;
     private final boolean discardNonMagik;
-    private final SmallworldProducts smallworldProducts;
+    private final int threads;
+    private final MagikClassCoverageConverter classCoverageConverter;
+    private boolean methodsRequired = true;
 
     /**
      * Constructor.
@@ -63,13 +65,77 @@ public class MagikBundleCoverageConverter {
             final IBundleCoverage bundleCoverage,
             final boolean discardExecutable,
             final boolean discardNonMagik) {
+        this(
+            libAnalyzer,
+            bundleCoverage,
+            discardExecutable,
+            discardNonMagik,
+            Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor.
+     * @param libAnalyzer Lib reader.
+     * @param bundleCoverage Bundle coverage.
+     * @param discardExecutable Discard executable.
+     * @param discardNonMagik Discard non-Magik code.
+     * @param threads Number of threads to convert with.
+     */
+    public MagikBundleCoverageConverter(
+            final Sw5LibAnalyzer libAnalyzer,
+            final IBundleCoverage bundleCoverage,
+            final boolean discardExecutable,
+            final boolean discardNonMagik,
+            final int threads) {
+        this(
+            libAnalyzer,
+            bundleCoverage,
+            new SmallworldProducts(libAnalyzer.getProductPaths(), threads),
+            discardExecutable,
+            discardNonMagik,
+            threads);
+    }
+
+    /**
+     * Constructor.
+     * @param libAnalyzer Lib reader.
+     * @param bundleCoverage Bundle coverage.
+     * @param smallworldProducts Smallworld products of the libs.
+     * @param discardExecutable Discard executable.
+     * @param discardNonMagik Discard non-Magik code.
+     * @param threads Number of threads to convert with.
+     */
+    public MagikBundleCoverageConverter(
+            final Sw5LibAnalyzer libAnalyzer,
+            final IBundleCoverage bundleCoverage,
+            final SmallworldProducts smallworldProducts,
+            final boolean discardExecutable,
+            final boolean discardNonMagik,
+            final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be at least 1");
+        }
+
         this.libAnalyzer = libAnalyzer;
         this.bundleCoverage = bundleCoverage;
         this.discardExecutable = discardExecutable;
         this.discardNonMagik = discardNonMagik;
+        this.threads = threads;
+        this.classCoverageConverter = new MagikClassCoverageConverter(smallworldProducts, discardExecutable);
+    }
 
-        final List<Path> productPaths = this.libAnalyzer.getProductPaths();
-        this.smallworldProducts = new SmallworldProducts(productPaths);
+    /**
+     * Set if the methods of the converted classes are required.
+     *
+     * <p>
+     * If not, the methods are still merged, but not renamed to Magik names and not kept, only the counters and lines of
+     * the classes and source files are converted. Sufficient for reports only using the lines of source files.
+     * </p>
+     *
+     * @param methodsRequired Methods are required.
+     */
+    public void setMethodsRequired(final boolean methodsRequired) {
+        this.methodsRequired = methodsRequired;
     }
 
     /**
@@ -78,134 +144,153 @@ public class MagikBundleCoverageConverter {
      */
     public IBundleCoverage convert() {
         final String name = this.bundleCoverage.getName();
-        final List<IPackageCoverage> newPackages = this.bundleCoverage.getPackages().stream()
-            .map(this::convert)
-            .filter(Objects::nonNull)
+        final ForkJoinPool forkJoinPool = new ForkJoinPool(this.threads);
+        final List<IPackageCoverage> newPackages;
+        try {
+            // Parallel streams started from within the pool, run on the pool.
+            newPackages = forkJoinPool.submit(() -> this.bundleCoverage.getPackages().parallelStream()
+                    .map(this::convert)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList()))
+                .join();
+        } finally {
+            forkJoinPool.shutdown();
+        }
+        return new BundleCoverageImpl(name, newPackages);
+    }
+
+    /**
+     * Run the conversion of the {@link IBundleCoverage}.
+     * @param lazily Get a lazy view of the converted {@link IBundleCoverage}, see {@link #convertLazily()}.
+     * @return Filtered and converted {@link IBundleCoverage}.
+     */
+    public IBundleCoverage convert(final boolean lazily) {
+        return lazily
+            ? this.convertLazily()
+            : this.convert();
+    }
+
+    /**
+     * Get a lazy view of the converted {@link IBundleCoverage}.
+     *
+     * <p>
+     * Packages are converted one at a time, when iterated, instead of all up front. Iterating the packages again
+     * converts them again, as does determining the counters of the bundle. The classes of large packages are still
+     * converted in parallel, on a fork/join pool of its own for each package. Useful to limit memory usage, for report
+     * visitors walking the packages only once.
+     * </p>
+     *
+     * @return Lazily filtered and converted {@link IBundleCoverage}.
+     */
+    public IBundleCoverage convertLazily() {
+        final String name = this.bundleCoverage.getName();
+        final List<IPackageCoverage> packageCoverages = this.bundleCoverage.getPackages().stream()
+            .filter(packageCoverage -> !this.isDiscarded(packageCoverage))
             .collect(Collectors.toList());
-        final BundleCoverageImpl newBundleCoverage = new BundleCoverageImpl(name, newPackages);
+        return new LazyBundleCoverage(name, packageCoverages, this::convertInPool);
+    }
+
+    private IPackageCoverage convertInPool(final IPackageCoverage packageCoverage) {
+        final ForkJoinPool forkJoinPool = new ForkJoinPool(this.threads);
+        try {
+            // Parallel streams started from within the pool, run on the pool.
+            return forkJoinPool.submit(() -> this.convert(packageCoverage)).join();
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
 
-        newBundleCoverage.increment(newPackages);
+    private boolean isDiscarded(final IPackageCoverage packageCoverage) {
+        return this.discardNonMagik
+            && !MagikBundleCoverageConverter.isMagik(packageCoverage);
+    }
 
-        return newBundleCoverage;
+    private static boolean isMagik(final IPackageCoverage packageCoverage) {
+        return packageCoverage.getName().matches("^magik/.*");
     }
 
+    @CheckForNull
     private IPackageCoverage convert(final IPackageCoverage packageCoverage) {
-        final String name = packageCoverage.getName();
-        if (!name.matches("^magik/.*")) {
-            if (this.discardNonMagik) {
-                return null;
-            }
+        if (this.isDiscarded(packageCoverage)) {
+            return null;
+        }
 
+        if (!MagikBundleCoverageConverter.isMagik(packageCoverage)) {
             return packageCoverage;
         }
 
+        final String name = packageCoverage.getName();
         final Collection<IClassCoverage> classCoverages = packageCoverage.getClasses();
-        final List<IClassCoverage> newClassCoverages = classCoverages.stream()
-            .map(classCoverage -> this.convert(classCoverages, classCoverage))
+        final ClassCoverageIndex classCoverageIndex = new ClassCoverageIndex(classCoverages);
+        final Stream<IClassCoverage> classCoverageStream = classCoverages.size() > PARALLEL_CLASS_THRESHOLD
+            ? classCoverages.parallelStream()
+            : classCoverages.stream();
+        final List<IClassCoverage> newClassCoverages = classCoverageStream
+            .map(classCoverage -> this.convert(classCoverageIndex, classCoverage))
             .filter(Objects::nonNull)
             .collect(Collectors.toList());
+        final ClassCoverageIndex newClassCoverageIndex = new ClassCoverageIndex(newClassCoverages);
         final List<ISourceFileCoverage> newSourceFileCoverages = packageCoverage.getSourceFiles().stream()
-            .map(sourceFileCoverage -> this.convert(sourceFileCoverage, newClassCoverages))
+            .map(sourceFileCoverage -> this.convert(sourceFileCoverage, newClassCoverageIndex))
             .collect(Collectors.toList());
-        final PackageCoverageImpl newPackageCoverage =
-            new PackageCoverageImpl(name, newClassCoverages, newSourceFileCoverages);
-
-        newPackageCoverage.increment(classCoverages);
-
-        return newPackageCoverage;
+        return new PackageCoverageImpl(name, newClassCoverages, newSourceFileCoverages);
     }
 
     @CheckForNull
     private IClassCoverage convert(
-            final Collection<IClassCoverage> classCoverages,
+            final ClassCoverageIndex classCoverageIndex,
             final IClassCoverage classCoverage) {
-        final ClassNode classNode = this.getClassNode(classCoverage);
-        if (classNode == null) {
-            // A ClassCoverage we do not have a ClassNode for. Just pass
+        final Sw5ClassInfo classInfo = this.getClassInfo(classCoverage);
+        if (classInfo == null) {
+            // A ClassCoverage we do not have a Sw5ClassInfo for. Just pass
             // it through.
             return classCoverage;
         }
 
-        if (ClassNodeHelper.isSubsidiaryClassNode(classNode)) {
+        if (classInfo.isSubsidiary()) {
             // Subsidiary classes are merged later on.
             return null;
         }
 
-        if (!ClassNodeHelper.isPrimaryClassNode(classNode)) {
+        if (!classInfo.isPrimary()) {
             // Let regular classes pass through.
             return classCoverage;
         }
 
-        // Create new class coverage.
-        final String name = classCoverage.getName();
-        final long id = classCoverage.getId();
-        final boolean noMatch = classCoverage.isNoMatch();
-        final ClassCoverageImpl newClassCoverage = new ClassCoverageImpl(name, id, noMatch);
-
-        // Skip the interface, but set source filename.
-        final String sourceFileName = this.getSourceFileName(classCoverage);
-        newClassCoverage.setSourceFileName(sourceFileName);
-
         // Get Subsidiary class.
-        final Map<ClassNode, ClassNode> classNodeDependencies = this.libAnalyzer.getClassDependencyMap();
-        final ClassNode subsidiaryClassNode = classNodeDependencies.get(classNode);
-        final IClassCoverage subsidiaryClassCoverage = subsidiaryClassNode != null
-            ? classCoverages.stream()
-                .filter(cc -> cc.getName().equals(subsidiaryClassNode.name))
-                .findAny()
-                .orElse(null)
-            : null;
+        final IClassCoverage subsidiaryClassCoverage = this.getSubsidiaryClassCoverage(classCoverageIndex, classInfo);
 
         // Merge Primary and Subsidiary class methods.
         final MethodCoverageMerger methodCoverageMerger = new MethodCoverageMerger(this.libAnalyzer);
         final Collection<IMethodCoverage> mergedMethodCoverages =
             methodCoverageMerger.run(classCoverage, subsidiaryClassCoverage);
-        mergedMethodCoverages.stream()
-            .map(methodCoverage -> this.convert(subsidiaryClassCoverage, methodCoverage))
-            .filter(Objects::nonNull)
-            .forEach(newClassCoverage::addMethod);
+        if (!this.methodsRequired) {
+            return this.classCoverageConverter.convertLines(classCoverage, mergedMethodCoverages);
+        }
 
-        return newClassCoverage;
+        return this.classCoverageConverter.convert(
+            classCoverage,
+            subsidiaryClassCoverage,
+            mergedMethodCoverages,
+            this.libAnalyzer::getMagikMethodName);
     }
 
-    /**
-     * Convert method coverage.
-     * @param primaryClassCoverage Class Coverage for the (merged) Primary class.
-     * @param methodCoverage Method Coverage.
-     * @return Converted Method Coverage or null.
-     */
-    private IMethodCoverage convert(
-            final IClassCoverage subsidiaryClassCoverage,
-            final IMethodCoverage methodCoverage) {
-        final String methodName = methodCoverage.getName();
-        final boolean isPrimaryClassMethod = PRIMARY_CLASS_METHODS.contains(methodName);
-        if (this.discardExecutable
-            && isPrimaryClassMethod) {
+    @CheckForNull
+    private IClassCoverage getSubsidiaryClassCoverage(
+            final ClassCoverageIndex classCoverageIndex,
+            final Sw5ClassInfo classInfo) {
+        final Map<Sw5ClassInfo, Sw5ClassInfo> classDependencies = this.libAnalyzer.getClassDependencyMap();
+        final Sw5ClassInfo subsidiaryClass = classDependencies.get(classInfo);
+        if (subsidiaryClass == null) {
             return null;
         }
 
-        if (isPrimaryClassMethod) {
-            // Nothing to discard. Regard this as a regular method.
-            return methodCoverage;
-        }
-
-        // This is a Magik method, which always lives on the subsidiary class.
-        final String javaClassName = subsidiaryClassCoverage.getName();
-        final String javaMethodName = methodCoverage.getName();
-        final String name =
-            this.libAnalyzer.getMagikMethodName(javaClassName, javaMethodName);
-        final String desc = "";
-        final String signature = methodCoverage.getSignature();
-        final MethodCoverageImpl newMethodCoverage = new MethodCoverageImpl(name, desc, signature);
-
-        newMethodCoverage.increment(methodCoverage);
-
-        return newMethodCoverage;
+        return classCoverageIndex.getClassCoverage(subsidiaryClass.getName());
     }
 
     private ISourceFileCoverage convert(
             final ISourceFileCoverage sourceFileCoverage,
-            final Collection<IClassCoverage> classCoverages) {
+            final ClassCoverageIndex classCoverageIndex) {
         // Create a copy of the SourceFileCoverage, but strip everything present from the executable part.
         final String name = this.getSourceFileName(sourceFileCoverage);
         final String packageName = sourceFileCoverage.getPackageName();
@@ -218,83 +303,28 @@ public class MagikBundleCoverageConverter {
         }
 
         // Find newly created ClassCoverage for this file.
-        final IClassCoverage relatedClassCoverage = classCoverages.stream()
-            .filter(classCoverage -> classCoverage.getSourceFileName().equals(name))
-            .findAny()
-            .orElse(null);
+        final IClassCoverage relatedClassCoverage = classCoverageIndex.getClassCoverageBySourceFileName(name);
         if (relatedClassCoverage == null) {
             // No lines to add.
             return newSourceFileCoverage;
         }
 
-        // Only copy lines which are not (indirectly) in the primary ClassCoverage.
-        for (int nr = sourceFileCoverage.getFirstLine(); nr < sourceFileCoverage.getLastLine(); ++nr) {
-            final ILine classCoverageLine = relatedClassCoverage.getLine(nr);
-            if (classCoverageLine == null) {
-                continue;
-            }
-
-            final ICounter branchCounter = classCoverageLine.getBranchCounter();
-            final ICounter instructionCounter = classCoverageLine.getInstructionCounter();
-            newSourceFileCoverage.increment(instructionCounter, branchCounter, nr);
-        }
+        // Only copy lines which are not (indirectly) in the primary ClassCoverage, in bulk.
+        newSourceFileCoverage.increment(relatedClassCoverage);
 
         return newSourceFileCoverage;
     }
 
-    private String getSourceFileName(final IClassCoverage classCoverage) {
-        final String packageName = classCoverage.getPackageName();
-        final String sourceFileName = classCoverage.getSourceFileName();
-        return this.getSourceFileName(packageName, sourceFileName);
-    }
-
     private String getSourceFileName(final ISourceFileCoverage sourceFileCoverage) {
         final String packageName = sourceFileCoverage.getPackageName();
         final String sourceFileName = sourceFileCoverage.getName();
-        return this.getSourceFileName(packageName, sourceFileName);
-    }
-
-    private String getSourceFileName(final String packageName, final String sourceFileName) {
-        final Path sourcePath;
-        try {
-            sourcePath = this.smallworldProducts.getSourcePath(packageName, sourceFileName);
-        } catch (final IOException exception) {
-            throw new IllegalStateException(exception);
-        }
-
-        if (sourcePath == null) {
-            return sourceFileName;
-        }
-
-        // Strip leading `./`.
-        final String newSourceFileName = sourcePath.toString();
-        return newSourceFileName.replaceFirst("^\\./", "");
+        return this.classCoverageConverter.getSourceFileName(packageName, sourceFileName);
     }
 
     @CheckForNull
-    private IClassCoverage getSubsidiaryClassCoverage(final ISourceFileCoverage sourceFileCoverage) {
-        final String name = sourceFileCoverage.getName();
-        return this.bundleCoverage.getPackages().stream()
-            .flatMap(packageCoverage -> packageCoverage.getClasses().stream())
-            .filter(classCoverage -> classCoverage.getSourceFileName().equals(name))
-            .filter(classCoverage -> !this.isPrimaryClassCoverage(classCoverage))
-            .findFirst()
-            .orElse(null);
-    }
-
-    @CheckForNull
-    private ClassNode getClassNode(final IClassCoverage classCoverage) {
+    private Sw5ClassInfo getClassInfo(final IClassCoverage classCoverage) {
         final String className = classCoverage.getName() + ".class";
         return this.libAnalyzer.getClassByName(className);
     }
 
-    private boolean isPrimaryClassCoverage(final IClassCoverage classCoverage) {
-        final ClassNode classNode = this.getClassNode(classCoverage);
-        if (classNode == null) {
-            throw new IllegalStateException("ClassNode not found for " + classCoverage.getName());
-        }
-
-        return ClassNodeHelper.isPrimaryClassNode(classNode);
-    }
-
 }
@@ -0,0 +1,102 @@
+package nl.ramsolutions.sw.magik.jacoco.conversion;
+
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.IMethodCoverage;
+import org.jacoco.core.internal.analysis.CounterImpl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Converted class coverage, of which the lines are stored in a {@link CompactLineCoverage}.
+ */
+final class MagikClassCoverage extends CompactSourceNode implements IClassCoverage {
+
+    private final long id;
+    private final boolean noMatch;
+    private final List<IMethodCoverage> methods = new ArrayList<>();
+    private String sourceFileName;
+
+    /**
+     * Constructor.
+     * @param name Name of class.
+     * @param id Id of class.
+     * @param noMatch No match.
+     */
+    MagikClassCoverage(final String name, final long id, final boolean noMatch) {
+        super(ElementType.CLASS, name);
+        this.id = id;
+        this.noMatch = noMatch;
+    }
+
+    /**
+     * Add a method.
+     * @param methodCoverage Method to add.
+     */
+    void addMethod(final IMethodCoverage methodCoverage) {
+        this.methods.add(methodCoverage);
+        this.incrementMethod(methodCoverage);
+    }
+
+    /**
+     * Add the counters and lines of a method, without adding the method itself.
+     * @param methodCoverage Method to add the counters and lines of.
+     */
+    void incrementMethod(final IMethodCoverage methodCoverage) {
+        this.increment(methodCoverage);
+        this.classCounter = this.methodCounter.getCoveredCount() > 0
+            ? CounterImpl.COUNTER_0_1
+            : CounterImpl.COUNTER_1_0;
+    }
+
+    /**
+     * Set the source file name.
+     * @param sourceFileName Name of source file.
+     */
+    void setSourceFileName(final String sourceFileName) {
+        this.sourceFileName = sourceFileName;
+    }
+
+    @Override
+    public long getId() {
+        return this.id;
+    }
+
+    @Override
+    public boolean isNoMatch() {
+        return this.noMatch;
+    }
+
+    @Override
+    public String getSignature() {
+        return null;
+    }
+
+    @Override
+    public String getSuperName() {
+        return null;
+    }
+
+    @Override
+    public String[] getInterfaceNames() {
+        return null;
+    }
+
+    @Override
+    public String getPackageName() {
+        final int index = this.getName().lastIndexOf('/');
+        return index == -1 ? "" : this.getName().substring(0, index);
+    }
+
+    @Override
+    public String getSourceFileName() {
+        return this.sourceFileName;
+    }
+
+    @Override
+    public Collection<IMethodCoverage> getMethods() {
+        return this.methods;
+    }
+
+}
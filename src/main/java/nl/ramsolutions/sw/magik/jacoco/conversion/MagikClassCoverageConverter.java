@@ -0,0 +1,163 @@
+package nl.ramsolutions.sw.magik.jacoco.conversion;
+
+import nl.ramsolutions.sw.magik.jacoco.helpers.SmallworldProducts;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.IMethodCoverage;
+
+import javax.annotation.CheckForNull;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+
+/**
+ * Converts the coverage of a single primary class, with its merged methods, to Magik coverage.
+ *
+ * <p>
+ * Shared by {@link MagikBundleCoverageConverter} and {@link MagikCoverageVisitor}.
+ * </p>
+ */
+final class MagikClassCoverageConverter {
+
+    private static final Set<String> PRIMARY_CLASS_METHODS = Set.of(
+        "<init>",
+        "preload",
+        "execute");
+
+    private final SmallworldProducts smallworldProducts;
+    private final boolean discardExecutable;
+
+    /**
+     * Constructor.
+     * @param smallworldProducts Products to resolve source files with.
+     * @param discardExecutable Discard executable.
+     */
+    MagikClassCoverageConverter(final SmallworldProducts smallworldProducts, final boolean discardExecutable) {
+        this.smallworldProducts = smallworldProducts;
+        this.discardExecutable = discardExecutable;
+    }
+
+    /**
+     * Convert the coverage of a primary class.
+     * @param classCoverage Coverage of the primary class.
+     * @param subsidiaryClassCoverage Coverage of the subsidiary class, if any.
+     * @param mergedMethodCoverages Merged methods of the primary and subsidiary class.
+     * @param magikMethodNameResolver Resolver of Magik names, from Java class and method names.
+     * @return Converted class coverage.
+     */
+    IClassCoverage convert(
+            final IClassCoverage classCoverage,
+            @CheckForNull final IClassCoverage subsidiaryClassCoverage,
+            final Collection<IMethodCoverage> mergedMethodCoverages,
+            final BinaryOperator<String> magikMethodNameResolver) {
+        final MagikClassCoverage newClassCoverage = this.createClassCoverage(classCoverage);
+        mergedMethodCoverages.stream()
+            .map(methodCoverage -> this.convert(subsidiaryClassCoverage, methodCoverage, magikMethodNameResolver))
+            .filter(Objects::nonNull)
+            .forEach(newClassCoverage::addMethod);
+
+        return newClassCoverage;
+    }
+
+    /**
+     * Convert the coverage of a primary class, only keeping the counters and lines, but not the methods.
+     *
+     * <p>
+     * Methods are merged, but neither renamed nor kept. The counters are the same as those of {@link #convert}.
+     * </p>
+     *
+     * @param classCoverage Coverage of the primary class.
+     * @param mergedMethodCoverages Merged methods of the primary and subsidiary class.
+     * @return Converted class coverage, without methods.
+     */
+    IClassCoverage convertLines(
+            final IClassCoverage classCoverage,
+            final Collection<IMethodCoverage> mergedMethodCoverages) {
+        final MagikClassCoverage newClassCoverage = this.createClassCoverage(classCoverage);
+        mergedMethodCoverages.stream()
+            .filter(methodCoverage -> !this.isDiscarded(methodCoverage))
+            .forEach(newClassCoverage::incrementMethod);
+
+        return newClassCoverage;
+    }
+
+    private MagikClassCoverage createClassCoverage(final IClassCoverage classCoverage) {
+        // Create new class coverage.
+        final String name = classCoverage.getName();
+        final long id = classCoverage.getId();
+        final boolean noMatch = classCoverage.isNoMatch();
+        final MagikClassCoverage newClassCoverage = new MagikClassCoverage(name, id, noMatch);
+
+        // Skip the interface, but set source filename.
+        final String sourceFileName = this.getSourceFileName(classCoverage);
+        newClassCoverage.setSourceFileName(sourceFileName);
+
+        return newClassCoverage;
+    }
+
+    private boolean isDiscarded(final IMethodCoverage methodCoverage) {
+        return this.discardExecutable
+            && PRIMARY_CLASS_METHODS.contains(methodCoverage.getName());
+    }
+
+    /**
+     * Convert method coverage.
+     * @param subsidiaryClassCoverage Class Coverage for the Subsidiary class.
+     * @param methodCoverage Method Coverage.
+     * @param magikMethodNameResolver Resolver of Magik names, from Java class and method names.
+     * @return Converted Method Coverage or null.
+     */
+    @CheckForNull
+    private IMethodCoverage convert(
+            @CheckForNull final IClassCoverage subsidiaryClassCoverage,
+            final IMethodCoverage methodCoverage,
+            final BinaryOperator<String> magikMethodNameResolver) {
+        if (this.isDiscarded(methodCoverage)) {
+            return null;
+        }
+
+        if (PRIMARY_CLASS_METHODS.contains(methodCoverage.getName())) {
+            // Nothing to discard. Regard this as a regular method.
+            return methodCoverage;
+        }
+
+        // This is a Magik method, which always lives on the subsidiary class.
+        Objects.requireNonNull(subsidiaryClassCoverage);
+        final String javaClassName = subsidiaryClassCoverage.getName();
+        final String javaMethodName = methodCoverage.getName();
+        final String name = magikMethodNameResolver.apply(javaClassName, javaMethodName);
+        final String desc = "";
+        final String signature = methodCoverage.getSignature();
+        final MagikMethodCoverage newMethodCoverage = new MagikMethodCoverage(name, desc, signature);
+
+        newMethodCoverage.increment(methodCoverage);
+
+        return newMethodCoverage;
+    }
+
+    private String getSourceFileName(final IClassCoverage classCoverage) {
+        final String packageName = classCoverage.getPackageName();
+        final String sourceFileName = classCoverage.getSourceFileName();
+        return this.getSourceFileName(packageName, sourceFileName);
+    }
+
+    /**
+     * Get the source file name, relative to the product.
+     * @param packageName Name of package.
+     * @param sourceFileName Name of source file, as in the bytecode.
+     * @return Source file name, or the given name if not found.
+     */
+    String getSourceFileName(final String packageName, final String sourceFileName) {
+        final Path sourcePath = this.smallworldProducts.getSourcePath(packageName, sourceFileName);
+        if (sourcePath == null) {
+            return sourceFileName;
+        }
+
+        // Strip leading `./`.
+        final String newSourceFileName = sourcePath.toString();
+        return newSourceFileName.replaceFirst("^\\./", "");
+    }
+
+}
@@ -0,0 +1,156 @@
+package nl.ramsolutions.sw.magik.jacoco.conversion;
+
+import nl.ramsolutions.sw.magik.jacoco.helpers.SmallworldProducts;
+import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5ClassInfo;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICoverageVisitor;
+import org.jacoco.core.analysis.IMethodCoverage;
+
+import javax.annotation.CheckForNull;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Converts native JaCoCo/JVM coverage data to Magik coverage data, while the classes are analyzed.
+ *
+ * <p>
+ * Sits between the JaCoCo {@link org.jacoco.core.analysis.Analyzer} and a {@link ICoverageVisitor}, such as a
+ * {@link org.jacoco.core.analysis.CoverageBuilder}. The coverage of a primary or subsidiary class is only buffered
+ * until the coverage of its partner is visited, after which the merged and renamed class coverage is passed on
+ * directly. Other classes are passed on as is, or discarded when discarding non-Magik code.
+ * </p>
+ *
+ * <p>
+ * The Magik names are resolved from the primary and subsidiary class only. Calls to this visitor must be serialized.
+ * {@link #flush()} must be called after the last class is visited.
+ * </p>
+ */
+public class MagikCoverageVisitor implements ICoverageVisitor {
+
+    private static final String MAGIK_PACKAGE_PREFIX = "magik/";
+
+    private final Function<String, Sw5ClassInfo> classInfoResolver;
+    private final ICoverageVisitor coverageVisitor;
+    private final boolean discardNonMagik;
+    private final MagikClassCoverageConverter classCoverageConverter;
+    private final Map<String, IClassCoverage> pendingPrimaryClassCoverages = new HashMap<>();
+    private final Map<String, IClassCoverage> pendingSubsidiaryClassCoverages = new HashMap<>();
+
+    /**
+     * Constructor.
+     * @param classInfoResolver Resolver of {@link Sw5ClassInfo}s, by class name.
+     * @param coverageVisitor Visitor to pass the converted coverage to.
+     * @param smallworldProducts Smallworld products of the libs.
+     * @param discardExecutable Discard executable.
+     * @param discardNonMagik Discard non-Magik code.
+     */
+    public MagikCoverageVisitor(
+            final Function<String, Sw5ClassInfo> classInfoResolver,
+            final ICoverageVisitor coverageVisitor,
+            final SmallworldProducts smallworldProducts,
+            final boolean discardExecutable,
+            final boolean discardNonMagik) {
+        this.classInfoResolver = classInfoResolver;
+        this.coverageVisitor = coverageVisitor;
+        this.discardNonMagik = discardNonMagik;
+        this.classCoverageConverter = new MagikClassCoverageConverter(smallworldProducts, discardExecutable);
+    }
+
+    @Override
+    public void visitCoverage(final IClassCoverage classCoverage) {
+        if (!classCoverage.getPackageName().startsWith(MAGIK_PACKAGE_PREFIX)) {
+            this.visitNonMagikCoverage(classCoverage);
+            return;
+        }
+
+        final Sw5ClassInfo classInfo = this.classInfoResolver.apply(classCoverage.getName());
+        if (classInfo == null) {
+            // A ClassCoverage we do not have a Sw5ClassInfo for. Just pass it through.
+            this.coverageVisitor.visitCoverage(classCoverage);
+        } else if (classInfo.isSubsidiary()) {
+            this.visitSubsidiaryCoverage(classCoverage);
+        } else {
+            this.visitPrimaryCoverage(classInfo, classCoverage);
+        }
+    }
+
+    private void visitNonMagikCoverage(final IClassCoverage classCoverage) {
+        if (!this.discardNonMagik) {
+            this.coverageVisitor.visitCoverage(classCoverage);
+        }
+    }
+
+    private void visitSubsidiaryCoverage(final IClassCoverage subsidiaryClassCoverage) {
+        final String subsidiaryClassName = subsidiaryClassCoverage.getName();
+        final IClassCoverage primaryClassCoverage = this.pendingPrimaryClassCoverages.remove(subsidiaryClassName);
+        if (primaryClassCoverage == null) {
+            // Wait for the primary class.
+            this.pendingSubsidiaryClassCoverages.put(subsidiaryClassName, subsidiaryClassCoverage);
+            return;
+        }
+
+        this.convert(primaryClassCoverage, subsidiaryClassCoverage);
+    }
+
+    private void visitPrimaryCoverage(final Sw5ClassInfo classInfo, final IClassCoverage primaryClassCoverage) {
+        if (!classInfo.isPrimary()) {
+            // Let regular classes pass through.
+            this.coverageVisitor.visitCoverage(primaryClassCoverage);
+            return;
+        }
+
+        final String subsidiaryClassName = classInfo.getSubsidiaryClassName();
+        if (subsidiaryClassName == null) {
+            this.convert(primaryClassCoverage, null);
+            return;
+        }
+
+        final IClassCoverage subsidiaryClassCoverage =
+            this.pendingSubsidiaryClassCoverages.remove(subsidiaryClassName);
+        if (subsidiaryClassCoverage == null) {
+            // Wait for the subsidiary class.
+            this.pendingPrimaryClassCoverages.put(subsidiaryClassName, primaryClassCoverage);
+            return;
+        }
+
+        this.convert(primaryClassCoverage, subsidiaryClassCoverage);
+    }
+
+    /**
+     * Pass on the primary classes of which the subsidiary class was never visited, and drop the subsidiary classes of
+     * which the primary class was never visited.
+     */
+    public void flush() {
+        final List<IClassCoverage> primaryClassCoverages = List.copyOf(this.pendingPrimaryClassCoverages.values());
+        this.pendingPrimaryClassCoverages.clear();
+        this.pendingSubsidiaryClassCoverages.clear();
+        primaryClassCoverages.forEach(primaryClassCoverage -> this.convert(primaryClassCoverage, null));
+    }
+
+    private void convert(
+            final IClassCoverage primaryClassCoverage,
+            @CheckForNull final IClassCoverage subsidiaryClassCoverage) {
+        final Sw5ClassInfo primaryClass = this.classInfoResolver.apply(primaryClassCoverage.getName());
+        Objects.requireNonNull(primaryClass);
+        final Sw5ClassInfo subsidiaryClass = subsidiaryClassCoverage != null
+            ? this.classInfoResolver.apply(subsidiaryClassCoverage.getName())
+            : null;
+
+        // Merge Primary and Subsidiary class methods, resolve names from this pair only.
+        final Collection<IMethodCoverage> mergedMethodCoverages = MethodCoverageMerger.merge(
+            primaryClassCoverage, primaryClass,
+            subsidiaryClassCoverage, subsidiaryClass);
+        final IClassCoverage newClassCoverage = this.classCoverageConverter.convert(
+            primaryClassCoverage,
+            subsidiaryClassCoverage,
+            mergedMethodCoverages,
+            new ClassPairMethodNameResolver(primaryClass, subsidiaryClass));
+        this.coverageVisitor.visitCoverage(newClassCoverage);
+    }
+
+}
@@ -0,0 +1,35 @@
+package nl.ramsolutions.sw.magik.jacoco.conversion;
+
+import org.jacoco.core.analysis.IMethodCoverage;
+
+/**
+ * Merged or converted method coverage, of which the lines are stored in a {@link CompactLineCoverage}.
+ */
+final class MagikMethodCoverage extends CompactSourceNode implements IMethodCoverage {
+
+    private final String desc;
+    private final String signature;
+
+    /**
+     * Constructor.
+     * @param name Name of method.
+     * @param desc Descriptor of method.
+     * @param signature Signature of method.
+     */
+    MagikMethodCoverage(final String name, final String desc, final String signature) {
+        super(ElementType.METHOD, name);
+        this.desc = desc;
+        this.signature = signature;
+    }
+
+    @Override
+    public String getDesc() {
+        return this.desc;
+    }
+
+    @Override
+    public String getSignature() {
+        return this.signature;
+    }
+
+}
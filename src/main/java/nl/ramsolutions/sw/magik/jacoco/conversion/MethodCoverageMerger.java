@@ -1,19 +1,18 @@
 package nl.ramsolutions.sw.magik.jacoco.conversion;
 
-import nl.ramsolutions.sw.magik.jacoco.helpers.ClassNodeHelper;
+import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5ClassInfo;
 import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5LibAnalyzer;
+import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5LibDependencyBuilder;
+import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5MethodInfo;
 import org.jacoco.core.analysis.IClassCoverage;
 import org.jacoco.core.analysis.IMethodCoverage;
-import org.jacoco.core.internal.analysis.MethodCoverageImpl;
-import org.objectweb.asm.tree.ClassNode;
-import org.objectweb.asm.tree.MethodNode;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -27,6 +26,11 @@ import java.util.stream.Stream;
  * Given a {@link IClassCoverage}, iterates over the methods and sees if this is a "sub-method",
  * such as a {@code __loopbody__} or a {@code __proc__} method, and merges the methods.
  * </p>
+ *
+ * <p>
+ * Each method is merged directly into its root method, i.e., the method at the top of its chain of parents. The
+ * result therefore does not depend on the order in which methods are declared.
+ * </p>
  */
 public class MethodCoverageMerger {
 
@@ -43,115 +47,129 @@ public class MethodCoverageMerger {
     public Collection<IMethodCoverage> run(
             final IClassCoverage primaryClassCoverage,
             @Nullable final IClassCoverage subsidiaryClassCoverage) {
-        // Find ClassNode for IClassCoverage.
-        final ClassNode providerClassNode = this.getClassNode(primaryClassCoverage);
-        if (providerClassNode == null) {
+        // Find Sw5ClassInfo for IClassCoverage.
+        final Sw5ClassInfo providerClass = this.getClassInfo(primaryClassCoverage);
+        if (providerClass == null) {
             final String msg = "Could not find provider node, class: " + primaryClassCoverage.getName();
             throw new IllegalStateException(msg);
         }
 
-        final ClassNode supplierClassNode = subsidiaryClassCoverage != null
-            ? this.getClassNode(subsidiaryClassCoverage)
+        final Sw5ClassInfo supplierClass = subsidiaryClassCoverage != null
+            ? this.getClassInfo(subsidiaryClassCoverage)
             : null;
-        if (supplierClassNode == null) {
+        return MethodCoverageMerger.merge(primaryClassCoverage, providerClass, subsidiaryClassCoverage, supplierClass);
+    }
+
+    /**
+     * Run the merge with known {@link Sw5ClassInfo}s, return the new {@link IMethodCoverage}s.
+     * @param primaryClassCoverage Coverage of the primary class.
+     * @param providerClass Primary class.
+     * @param subsidiaryClassCoverage Coverage of the subsidiary class, if any.
+     * @param supplierClass Subsidiary class, if any.
+     * @return Merged {@link IMethodCoverage}s.
+     */
+    static Collection<IMethodCoverage> merge(
+            final IClassCoverage primaryClassCoverage,
+            final Sw5ClassInfo providerClass,
+            @Nullable final IClassCoverage subsidiaryClassCoverage,
+            @Nullable final Sw5ClassInfo supplierClass) {
+        if (subsidiaryClassCoverage == null || supplierClass == null) {
             // ClassCoverage is most likely for a primary class without a subsidiary class.
             // No need to merge anything.
             return primaryClassCoverage.getMethods();
         }
 
         // Merge IMethodCoverage for primary/subsidiary and all dependencies.
-        final Map<MethodNode, MethodNode> methodDependencyMap =
-            this.libAnalyzer.getMethodDependencyMap(providerClassNode, supplierClassNode);
-        final Map<MethodNode, IMethodCoverage> methodCoverageMap = this.buildMethodCoverageMap(
-            primaryClassCoverage, providerClassNode,
-            subsidiaryClassCoverage, supplierClassNode);
-        return this.mergeMethods(providerClassNode, supplierClassNode, methodDependencyMap, methodCoverageMap);
+        final Map<Sw5MethodInfo, Sw5MethodInfo> methodDependencyMap =
+            Sw5LibDependencyBuilder.buildMethodDependencyMap(providerClass, supplierClass);
+        final Map<Sw5MethodInfo, IMethodCoverage> methodCoverageMap = MethodCoverageMerger.buildMethodCoverageMap(
+            primaryClassCoverage, providerClass,
+            subsidiaryClassCoverage, supplierClass);
+        return MethodCoverageMerger.mergeMethods(methodDependencyMap, methodCoverageMap);
     }
 
-    private Collection<IMethodCoverage> mergeMethods(
-            final ClassNode primaryClassNode,
-            final ClassNode subsidiaryClassNode,
-            final Map<MethodNode, MethodNode> methodDependencyMap,
-            final Map<MethodNode, IMethodCoverage> methodCoverageMap) {
-        // Note that the methodCoverageMap is mutated in place!
-
-        // Determine order to merge.
-        final List<MethodNode> mergeOrder = new ArrayList<>();
-        mergeOrder.addAll(primaryClassNode.methods);
-        mergeOrder.addAll(subsidiaryClassNode.methods);
-        Collections.reverse(mergeOrder);
-
-        // Merge all methods.
-        for (final MethodNode childNode : mergeOrder) {
-            final MethodNode parentNode = methodDependencyMap.get(childNode);
-            if (parentNode == null) {
-                // Nothing to merge, carry on...
-                // MethodCoverage is already in methodCoverageMap, so nothing needs to be done.
-                continue;
-            }
-
-            // Merge parent + child.
-            final IMethodCoverage parentMethodCoverage = methodCoverageMap.get(parentNode);
-            final IMethodCoverage childMethodCoverage = methodCoverageMap.get(childNode);
-            Objects.requireNonNull(parentMethodCoverage);
-            Objects.requireNonNull(childMethodCoverage);
-            final IMethodCoverage newMethodCoverage =
-                this.mergeMethodCoverage(parentMethodCoverage, childMethodCoverage);
-
-            // Store new MethodCoverage at parent (overwrite), remove child.
-            methodCoverageMap.put(parentNode, newMethodCoverage);
-            methodCoverageMap.remove(childNode);
-        }
-
-        return methodCoverageMap.values();
+    /**
+     * Merge the methods into their root methods.
+     * @param methodDependencyMap Dependencies, child method mapped to parent method.
+     * @param methodCoverageMap Coverage of each method.
+     * @return Merged {@link IMethodCoverage}s, one per root method.
+     */
+    static Collection<IMethodCoverage> mergeMethods(
+            final Map<Sw5MethodInfo, Sw5MethodInfo> methodDependencyMap,
+            final Map<Sw5MethodInfo, IMethodCoverage> methodCoverageMap) {
+        // Group all methods under their root method, resolving each root only once.
+        final MethodRootResolver rootResolver = new MethodRootResolver(methodDependencyMap);
+        final Map<Sw5MethodInfo, List<IMethodCoverage>> rootCoveragesMap = new LinkedHashMap<>();
+        methodCoverageMap.forEach((methodInfo, methodCoverage) -> {
+            final Sw5MethodInfo rootMethod = rootResolver.getRootMethod(methodInfo);
+            rootCoveragesMap.computeIfAbsent(rootMethod, key -> new ArrayList<>()).add(methodCoverage);
+        });
+
+        // Merge all methods into a single coverage per root method.
+        return rootCoveragesMap.entrySet().stream()
+            .map(entry -> {
+                final IMethodCoverage rootMethodCoverage = methodCoverageMap.get(entry.getKey());
+                Objects.requireNonNull(rootMethodCoverage);
+                return MethodCoverageMerger.mergeMethodCoverages(rootMethodCoverage, entry.getValue());
+            })
+            .collect(Collectors.toList());
     }
 
     @CheckForNull
-    private ClassNode getClassNode(final IClassCoverage classCoverage) {
+    private Sw5ClassInfo getClassInfo(final IClassCoverage classCoverage) {
         final String className = classCoverage.getName() + ".class";
         return this.libAnalyzer.getClassByName(className);
     }
 
-    private IMethodCoverage mergeMethodCoverage(
-            final IMethodCoverage parentMethodCoverage,
-            final IMethodCoverage childMethodCoverage) {
-        final String name = parentMethodCoverage.getName();
-        final String desc = parentMethodCoverage.getDesc();
-        final String signature = parentMethodCoverage.getSignature();
-        final MethodCoverageImpl newMethodCoverage = new MethodCoverageImpl(name, desc, signature);
+    private static IMethodCoverage mergeMethodCoverages(
+            final IMethodCoverage rootMethodCoverage,
+            final List<IMethodCoverage> methodCoverages) {
+        if (methodCoverages.size() == 1) {
+            // Nothing to merge, root method only.
+            return rootMethodCoverage;
+        }
 
-        newMethodCoverage.increment(parentMethodCoverage);
-        newMethodCoverage.increment(childMethodCoverage);
+        final String name = rootMethodCoverage.getName();
+        final String desc = rootMethodCoverage.getDesc();
+        final String signature = rootMethodCoverage.getSignature();
+        final MagikMethodCoverage newMethodCoverage = new MagikMethodCoverage(name, desc, signature);
+        for (final IMethodCoverage methodCoverage : methodCoverages) {
+            newMethodCoverage.increment(methodCoverage);
+        }
         return newMethodCoverage;
     }
 
     /**
-     * Build map with key as {@link MethodNode} and value as {@link IMethodCoverage}.
+     * Build map with key as {@link Sw5MethodInfo} and value as {@link IMethodCoverage}.
      * @param classCoverage Class coverage
-     * @param classNode Class node to extract methods form.
-     * @return Map with {@link MethodNode} mapped to {@link IMethodCoverage}.
+     * @param classInfo Class to extract methods form.
+     * @return Map with {@link Sw5MethodInfo} mapped to {@link IMethodCoverage}.
      */
-    private Map<MethodNode, IMethodCoverage> buildMethodCoverageMap(
+    private static Map<Sw5MethodInfo, IMethodCoverage> buildMethodCoverageMap(
             final IClassCoverage primaryClassCoverage,
-            final ClassNode providerClassNode,
+            final Sw5ClassInfo providerClass,
             final IClassCoverage subsidiaryClassCoverage,
-            final ClassNode supplierClassNode) {
+            final Sw5ClassInfo supplierClass) {
         return Stream.concat(
             primaryClassCoverage.getMethods().stream()
                 .map(methodCoverage -> {
                     final String methodName = methodCoverage.getName();
-                    final MethodNode methodNode = ClassNodeHelper.getMethodNode(providerClassNode, methodName);
-                    return Map.entry(methodNode, methodCoverage);
+                    final Sw5MethodInfo methodInfo = providerClass.getMethod(methodName);
+                    return Map.entry(methodInfo, methodCoverage);
                 }),
                 subsidiaryClassCoverage.getMethods().stream()
                 .map(methodCoverage -> {
                     final String methodName = methodCoverage.getName();
-                    final MethodNode methodNode = ClassNodeHelper.getMethodNode(supplierClassNode, methodName);
-                    return Map.entry(methodNode, methodCoverage);
+                    final Sw5MethodInfo methodInfo = supplierClass.getMethod(methodName);
+                    return Map.entry(methodInfo, methodCoverage);
                 }))
             .collect(Collectors.toMap(
                 Map.Entry::getKey,
-                Map.Entry::getValue));
+                Map.Entry::getValue,
+                (methodCoverage1, methodCoverage2) -> {
+                    throw new IllegalStateException("Duplicate method: " + methodCoverage1.getName());
+                },
+                LinkedHashMap::new));
     }
 
 }
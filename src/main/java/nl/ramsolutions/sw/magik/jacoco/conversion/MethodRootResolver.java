@@ -0,0 +1,59 @@
+package nl.ramsolutions.sw.magik.jacoco.conversion;
+
+import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5MethodInfo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves the root method of a method, i.e., the method at the top of its chain of parents.
+ *
+ * <p>
+ * The root of every method visited is memoized, such that each chain of parents is followed only once.
+ * </p>
+ */
+class MethodRootResolver {
+
+    private final Map<Sw5MethodInfo, Sw5MethodInfo> methodDependencyMap;
+    private final Map<Sw5MethodInfo, Sw5MethodInfo> rootMap = new HashMap<>();
+
+    /**
+     * Constructor.
+     * @param methodDependencyMap Dependencies, child method mapped to parent method.
+     */
+    MethodRootResolver(final Map<Sw5MethodInfo, Sw5MethodInfo> methodDependencyMap) {
+        this.methodDependencyMap = methodDependencyMap;
+    }
+
+    /**
+     * Get the root method of a method.
+     * @param methodInfo Method to get the root method for.
+     * @return Root method, or the method itself if it has no parent.
+     */
+    Sw5MethodInfo getRootMethod(final Sw5MethodInfo methodInfo) {
+        final List<Sw5MethodInfo> path = new ArrayList<>();
+        Sw5MethodInfo currentMethod = methodInfo;
+        Sw5MethodInfo rootMethod = this.rootMap.get(currentMethod);
+        while (rootMethod == null) {
+            if (path.size() > this.methodDependencyMap.size()) {
+                throw new IllegalStateException("Cyclic method dependency, method: " + methodInfo.getName());
+            }
+
+            path.add(currentMethod);
+            final Sw5MethodInfo parentMethod = this.methodDependencyMap.get(currentMethod);
+            rootMethod = parentMethod == null
+                ? currentMethod
+                : this.rootMap.get(parentMethod);
+            currentMethod = parentMethod;
+        }
+
+        // Memoize the root for all methods on the path.
+        for (final Sw5MethodInfo pathMethod : path) {
+            this.rootMap.put(pathMethod, rootMethod);
+        }
+        return rootMethod;
+    }
+
+}
@@ -5,38 +5,48 @@ import nl.ramsolutions.sw.magik.jacoco.helpers.SmallworldProducts;
 import nl.ramsolutions.sw.magik.jacoco.helpers.SmallworldProductsSourceFileLocator;
 import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5LibAnalyzer;
 import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5LibReader;
-import org.jacoco.core.analysis.Analyzer;
+import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5LibReaderOptions;
 import org.jacoco.core.analysis.CoverageBuilder;
 import org.jacoco.core.analysis.IBundleCoverage;
+import org.jacoco.core.data.ExecutionData;
 import org.jacoco.core.data.ExecutionDataStore;
-import org.jacoco.core.tools.ExecFileLoader;
 import org.jacoco.report.DirectorySourceFileLocator;
 import org.jacoco.report.ISourceFileLocator;
 import org.jacoco.report.MultiSourceFileLocator;
 
+import javax.annotation.CheckForNull;
+
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Base report generator.
  */
 public abstract class BaseReportGenerator {
 
-    private static final String LIBS_DIR = "libs";
     private static final int TAB_WIDTH = 8;
 
     private final List<Path> productPaths;
     private final List<Path> sourcePaths;
     private final File outputFile;
-    private final File executionDataFile;
+    private final List<File> executionDataFiles;
     private final boolean discardExecutable;
     private final boolean discardNonMagik;
     private final String bundleName;
-    private final ExecFileLoader execFileLoader = new ExecFileLoader();
+    private final ExecutionDataLoader executionDataLoader;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private Path cachePath;
+    private boolean touchedOnly;
+    private boolean streaming;
+    private boolean lazyConversion;
+    private final CoverageBuilder coverageBuilder = new CoverageBuilder();
     private Sw5LibAnalyzer libAnalyzer;
+    private SmallworldProducts smallworldProducts;
 
     /**
      * Constructor.
@@ -47,7 +57,7 @@ public abstract class BaseReportGenerator {
      *
      * @param productPaths Paths to Smallworld product directories.
      * @param sourcePaths Paths to regular (Java) source directories.
-     * @param executionDataFile File to {@literal jacoco.exec}.
+     * @param executionDataFiles Files to {@literal jacoco.exec}, merged.
      * @param outputFile File to report directory.
      * @param discardExecutable Discard executable.
      * @param discardNonMagik Discard non-Magik code.
@@ -56,18 +66,69 @@ public abstract class BaseReportGenerator {
     protected BaseReportGenerator(
             final List<Path> productPaths,
             final List<Path> sourcePaths,
-            final File executionDataFile,
+            final List<File> executionDataFiles,
             final File outputFile,
             final boolean discardExecutable,
             final boolean discardNonMagik,
             final String bundleName) {
         this.productPaths = productPaths;
         this.sourcePaths = sourcePaths;
-        this.executionDataFile = executionDataFile;
+        this.executionDataFiles = List.copyOf(executionDataFiles);
         this.outputFile = outputFile;
         this.discardExecutable = discardExecutable;
         this.discardNonMagik = discardNonMagik;
         this.bundleName = bundleName;
+        this.executionDataLoader = new ExecutionDataLoader(discardNonMagik);
+    }
+
+    /**
+     * Set the number of threads to use.
+     * @param threads Number of threads.
+     */
+    public void setThreads(final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be at least 1");
+        }
+
+        this.threads = threads;
+    }
+
+    /**
+     * Set the directory to cache the classes read from libs in.
+     * @param cachePath Cache directory, or null to disable caching.
+     */
+    public void setCachePath(@CheckForNull final Path cachePath) {
+        this.cachePath = cachePath;
+    }
+
+    /**
+     * Set to only analyze the classes touched by the execution data, and their primary/subsidiary partners.
+     * @param touchedOnly Only analyze touched classes.
+     */
+    public void setTouchedOnly(final boolean touchedOnly) {
+        this.touchedOnly = touchedOnly;
+    }
+
+    /**
+     * Set to convert the coverage to Magik coverage while analyzing the classes, instead of afterwards.
+     * @param streaming Convert while analyzing.
+     */
+    public void setStreaming(final boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * Set to convert the packages one at a time, while the report is created, instead of all up front, in parallel.
+     *
+     * <p>
+     * Reduces memory usage, as only a single converted package is held at a time. Packages are converted again for
+     * each pass of the report over the packages, such as for the totals of the bundle.
+     * </p>
+     *
+     * @param lazyConversion Convert lazily.
+     */
+    public void setLazyConversion(final boolean lazyConversion) {
+        this.lazyConversion = lazyConversion;
     }
 
     protected File getOutputFile() {
@@ -82,17 +143,16 @@ public abstract class BaseReportGenerator {
         return Collections.unmodifiableList(this.sourcePaths);
     }
 
-    protected ExecFileLoader getExecFileLoader() {
-        return this.execFileLoader;
+    protected ExecutionDataLoader getExecutionDataLoader() {
+        return this.executionDataLoader;
     }
 
     protected ISourceFileLocator getLocator() {
         final MultiSourceFileLocator locator = new MultiSourceFileLocator(TAB_WIDTH);
 
         // Add Smallworld product source file locator.
-        final SmallworldProducts smallworldProducts = new SmallworldProducts(this.productPaths);
         final SmallworldProductsSourceFileLocator productSourceFileLocator =
-            new SmallworldProductsSourceFileLocator(smallworldProducts);
+            new SmallworldProductsSourceFileLocator(this.smallworldProducts);
         locator.add(productSourceFileLocator);
 
         // Add all regular/Java locators.
@@ -103,8 +163,13 @@ public abstract class BaseReportGenerator {
         return locator;
     }
 
-    protected MagikNames getMagikNames() {
-        return new MagikNames();
+    /**
+     * Convert the {@link IBundleCoverage} to Magik style.
+     * @param bundleCoverageConverter Converter to use.
+     * @return Converted {@link IBundleCoverage}.
+     */
+    protected IBundleCoverage convert(final MagikBundleCoverageConverter bundleCoverageConverter) {
+        return bundleCoverageConverter.convert(this.lazyConversion);
     }
 
     /**
@@ -112,6 +177,8 @@ public abstract class BaseReportGenerator {
      * @throws IOException -
      */
     public void run() throws IOException {
+        // Products are found once, for converting the coverage and locating the source files.
+        this.smallworldProducts = new SmallworldProducts(this.productPaths, this.threads);
         this.loadExecutionData();
         this.loadSw5Libs();
 
@@ -126,33 +193,50 @@ public abstract class BaseReportGenerator {
      */
     protected abstract void createReport(IBundleCoverage bundleCoverage) throws IOException;
 
-    private IBundleCoverage analyzeStructure() throws IOException {
-        // Analyze classes (JaCoCo).
-        final CoverageBuilder coverageBuilder = new CoverageBuilder();
-        final ExecutionDataStore dataStore = this.execFileLoader.getExecutionDataStore();
-        final Analyzer analyzer = new Analyzer(dataStore, coverageBuilder);
-        for (final Path productPath : this.productPaths) {
-            final File libsDirectory = productPath.resolve(LIBS_DIR).toFile();
-            analyzer.analyzeAll(libsDirectory);
+    private IBundleCoverage analyzeStructure() {
+        // Classes are already analyzed (JaCoCo), while reading the libs.
+        final IBundleCoverage bundleCoverage = this.coverageBuilder.getBundle(this.bundleName);
+        if (this.streaming) {
+            // Already converted while analyzing.
+            return bundleCoverage;
         }
-        final IBundleCoverage bundleCoverage = coverageBuilder.getBundle(this.bundleName);
 
         // Merge method coverages (Magik), discard executable parts if needed.
         final MagikBundleCoverageConverter bundleCoverageConverter = new MagikBundleCoverageConverter(
             this.libAnalyzer,
             bundleCoverage,
+            this.smallworldProducts,
             this.discardExecutable,
-            this.discardNonMagik);
-        return bundleCoverageConverter.convert();
+            this.discardNonMagik,
+            this.threads);
+        return this.convert(bundleCoverageConverter);
     }
 
     private void loadExecutionData() throws IOException {
-        this.execFileLoader.load(this.executionDataFile);
+        this.executionDataLoader.load(this.executionDataFiles, this.threads);
     }
 
     private void loadSw5Libs() throws IOException {
-        final Sw5LibReader libReader = new Sw5LibReader(this.productPaths);
-        this.libAnalyzer = new Sw5LibAnalyzer(libReader);
+        final ExecutionDataStore dataStore = this.executionDataLoader.getExecutionDataStore();
+        final Collection<String> touchedClassNames = this.touchedOnly
+            ? dataStore.getContents().stream()
+                .map(ExecutionData::getName)
+                .collect(Collectors.toSet())
+            : null;
+
+        // Analyze classes (JaCoCo) in the same pass as reading the libs, converting them directly if streaming.
+        final LibClassAnalyzer libClassAnalyzer = LibClassAnalyzer.create(
+            dataStore, this.coverageBuilder, this.streaming, this.smallworldProducts, this.discardExecutable,
+            this.discardNonMagik);
+        final Sw5LibReaderOptions libReaderOptions = new Sw5LibReaderOptions();
+        libReaderOptions.setThreads(this.threads);
+        libReaderOptions.setCachePath(this.cachePath);
+        libReaderOptions.setTouchedClassNames(touchedClassNames);
+        libReaderOptions.setBytecodeConsumer(libClassAnalyzer);
+        libReaderOptions.setMagikOnly(this.discardNonMagik);
+        final Sw5LibReader libReader = new Sw5LibReader(this.productPaths, libReaderOptions);
+        libClassAnalyzer.finish();
+        this.libAnalyzer = new Sw5LibAnalyzer(libReader, this.threads);
     }
 
 }
@@ -4,7 +4,6 @@ import nl.ramsolutions.sw.magik.jacoco.generators.cobertura.CoberturaXmlFormatte
 import org.jacoco.core.analysis.IBundleCoverage;
 import org.jacoco.core.data.ExecutionData;
 import org.jacoco.core.data.SessionInfo;
-import org.jacoco.core.tools.ExecFileLoader;
 import org.jacoco.report.IReportVisitor;
 import org.jacoco.report.ISourceFileLocator;
 
@@ -28,7 +27,7 @@ public class CoberturaXmlReportGenerator extends BaseReportGenerator {
      *
      * @param productPaths Paths to Smallworld product directories.
      * @param sourcePaths Paths to regular (Java) source directories.
-     * @param executionDataFile File to {@literal jacoco.exec}.
+     * @param executionDataFiles Files to {@literal jacoco.exec}, merged.
      * @param outputFile File to report file (XML).
      * @param discardExecutable Discard executable.
      * @param discardNonMagik Discard non-Magik code.
@@ -37,12 +36,19 @@ public class CoberturaXmlReportGenerator extends BaseReportGenerator {
     public CoberturaXmlReportGenerator(
             final List<Path> productPaths,
             final List<Path> sourcePaths,
-            final File executionDataFile,
+            final List<File> executionDataFiles,
             final File outputFile,
             final boolean discardExecutable,
             final boolean discardNonMagik,
             final String bundleName) {
-        super(productPaths, sourcePaths, executionDataFile, outputFile, discardExecutable, discardNonMagik, bundleName);
+        super(
+            productPaths,
+            sourcePaths,
+            executionDataFiles,
+            outputFile,
+            discardExecutable,
+            discardNonMagik,
+            bundleName);
     }
 
     @Override
@@ -56,9 +62,9 @@ public class CoberturaXmlReportGenerator extends BaseReportGenerator {
         try (FileOutputStream output = new FileOutputStream(outputFile)) {
             final IReportVisitor visitor = coberturaXmlFormatter.createVisitor(output, sourcePaths);
 
-            final ExecFileLoader execFileLoader = this.getExecFileLoader();
-            final List<SessionInfo> infos = execFileLoader.getSessionInfoStore().getInfos();
-            final Collection<ExecutionData> contents = execFileLoader.getExecutionDataStore().getContents();
+            final ExecutionDataLoader executionDataLoader = this.getExecutionDataLoader();
+            final List<SessionInfo> infos = executionDataLoader.getSessionInfoStore().getInfos();
+            final Collection<ExecutionData> contents = executionDataLoader.getExecutionDataStore().getContents();
             visitor.visitInfo(infos, contents);
 
             final ISourceFileLocator locator = this.getLocator();
@@ -0,0 +1,107 @@
+package nl.ramsolutions.sw.magik.jacoco.generators;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Resolves execution data files ({@literal jacoco.exec}) from paths and glob patterns.
+ *
+ * <p>
+ * Paths are used as is, glob patterns are expanded to the matching files, sorted on path. A file given more than once
+ * is only used once.
+ * </p>
+ */
+public final class ExecutionDataFiles {
+
+    private static final String GLOB_CHARACTERS = "*?[{";
+    private static final String GLOB_RECURSIVE = "**";
+
+    private ExecutionDataFiles() {
+    }
+
+    /**
+     * Resolve execution data files.
+     * @param patterns Paths or glob patterns, such as {@code results/*.exec}.
+     * @return Files, in order of the given patterns.
+     * @throws IOException If a glob pattern does not match any file.
+     */
+    public static List<File> resolve(final List<String> patterns) throws IOException {
+        final List<File> files = new ArrayList<>();
+        for (final String pattern : patterns) {
+            files.addAll(ExecutionDataFiles.resolve(pattern));
+        }
+
+        return files.stream()
+            .distinct()
+            .collect(Collectors.toList());
+    }
+
+    private static List<File> resolve(final String pattern) throws IOException {
+        final int baseLength = ExecutionDataFiles.baseLength(pattern, File.separatorChar);
+        if (baseLength == -1) {
+            return List.of(new File(pattern));
+        }
+
+        // Only walk the directory before the first glob character, and only as deep as the pattern reaches. The rest
+        // is matched relative to that directory, using '/' as separator on any platform.
+        final Path basePath = Path.of(pattern.substring(0, baseLength));
+        final String globPart = pattern.substring(baseLength).replace(File.separatorChar, '/');
+        final int maxDepth = globPart.contains(GLOB_RECURSIVE)
+            ? Integer.MAX_VALUE
+            : (int) globPart.chars().filter(chr -> chr == '/').count() + 1;
+        final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + globPart);
+        final List<File> files;
+        try (Stream<Path> stream = Files.walk(basePath, maxDepth)) {
+            files = stream
+                .filter(path -> matcher.matches(basePath.relativize(path)))
+                .filter(Files::isRegularFile)
+                .sorted()
+                .map(Path::toFile)
+                .collect(Collectors.toList());
+        }
+
+        if (files.isEmpty()) {
+            throw new IOException("No execution data files found matching: " + pattern);
+        }
+
+        return files;
+    }
+
+    /**
+     * Get the length of the base directory of a glob pattern, i.e., up to and including the last separator before the
+     * first glob character. Both {@code /} and the given separator are accepted as separator.
+     * @param pattern Path or glob pattern.
+     * @param separatorChar Separator of the platform.
+     * @return Length of base directory, or -1 if not a glob pattern.
+     */
+    static int baseLength(final String pattern, final char separatorChar) {
+        final int globIndex = ExecutionDataFiles.globIndex(pattern);
+        if (globIndex == -1) {
+            return -1;
+        }
+
+        final int separatorIndex = Math.max(
+            pattern.lastIndexOf('/', globIndex),
+            pattern.lastIndexOf(separatorChar, globIndex));
+        return separatorIndex + 1;
+    }
+
+    private static int globIndex(final String pattern) {
+        for (int i = 0; i < pattern.length(); ++i) {
+            if (GLOB_CHARACTERS.indexOf(pattern.charAt(i)) != -1) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+}
@@ -0,0 +1,137 @@
+package nl.ramsolutions.sw.magik.jacoco.generators;
+
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataReader;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.data.SessionInfoStore;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Loads execution data ({@literal jacoco.exec}), optionally only for the classes of Magik packages.
+ *
+ * <p>
+ * Execution data of discarded classes is dropped while reading, and never stored.
+ * </p>
+ *
+ * <p>
+ * Multiple files are read in parallel, on the given number of threads, each into its own stores. These are then
+ * merged in order of the files, the probes of a class being OR-ed. The result is independent of the order the files
+ * are read in.
+ * </p>
+ */
+public final class ExecutionDataLoader {
+
+    private static final String MAGIK_PACKAGE_PREFIX = "magik/";
+
+    private final SessionInfoStore sessionInfoStore = new SessionInfoStore();
+    private final ExecutionDataStore executionDataStore = new ExecutionDataStore();
+    private final boolean discardNonMagik;
+
+    /**
+     * Constructor.
+     * @param discardNonMagik Discard the execution data of non-Magik classes.
+     */
+    public ExecutionDataLoader(final boolean discardNonMagik) {
+        this.discardNonMagik = discardNonMagik;
+    }
+
+    /**
+     * Load an execution data file.
+     * @param file File to load.
+     * @throws IOException -
+     */
+    public void load(final File file) throws IOException {
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+            final ExecutionDataReader reader = new ExecutionDataReader(inputStream);
+            reader.setSessionInfoVisitor(this.sessionInfoStore);
+            reader.setExecutionDataVisitor(this::visitClassExecution);
+            reader.read();
+        }
+    }
+
+    /**
+     * Load and merge execution data files.
+     * @param files Files to load.
+     * @throws IOException -
+     */
+    public void load(final List<File> files) throws IOException {
+        this.load(files, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Load and merge execution data files.
+     * @param files Files to load.
+     * @param threads Number of threads to load the files with.
+     * @throws IOException -
+     */
+    public void load(final List<File> files, final int threads) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be at least 1");
+        }
+
+        final List<ExecutionDataLoader> fileLoaders;
+        final ForkJoinPool forkJoinPool = new ForkJoinPool(threads);
+        try {
+            // Parallel streams started from within the pool, run on the pool.
+            fileLoaders = forkJoinPool.submit(() -> files.parallelStream()
+                    .map(this::loadSeparately)
+                    .collect(Collectors.toList()))
+                .join();
+        } catch (final UncheckedIOException exception) {
+            throw exception.getCause();
+        } finally {
+            forkJoinPool.shutdown();
+        }
+
+        for (int i = 0; i < files.size(); ++i) {
+            this.merge(fileLoaders.get(i), files.get(i));
+        }
+    }
+
+    private ExecutionDataLoader loadSeparately(final File file) {
+        final ExecutionDataLoader fileLoader = new ExecutionDataLoader(this.discardNonMagik);
+        try {
+            fileLoader.load(file);
+        } catch (final IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return fileLoader;
+    }
+
+    private void merge(final ExecutionDataLoader fileLoader, final File file) {
+        fileLoader.sessionInfoStore.accept(this.sessionInfoStore);
+        try {
+            // Probes are OR-ed, different classes (names, probe counts) with the same ID are rejected.
+            fileLoader.executionDataStore.accept(this.executionDataStore);
+        } catch (final IllegalStateException exception) {
+            throw new IllegalStateException("Conflicting execution data in: " + file, exception);
+        }
+    }
+
+    private void visitClassExecution(final ExecutionData executionData) {
+        if (this.discardNonMagik
+            && !executionData.getName().startsWith(MAGIK_PACKAGE_PREFIX)) {
+            return;
+        }
+
+        this.executionDataStore.visitClassExecution(executionData);
+    }
+
+    public SessionInfoStore getSessionInfoStore() {
+        return this.sessionInfoStore;
+    }
+
+    public ExecutionDataStore getExecutionDataStore() {
+        return this.executionDataStore;
+    }
+
+}
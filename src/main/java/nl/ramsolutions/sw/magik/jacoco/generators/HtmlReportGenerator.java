@@ -3,7 +3,6 @@ package nl.ramsolutions.sw.magik.jacoco.generators;
 import org.jacoco.core.analysis.IBundleCoverage;
 import org.jacoco.core.data.ExecutionData;
 import org.jacoco.core.data.SessionInfo;
-import org.jacoco.core.tools.ExecFileLoader;
 import org.jacoco.report.FileMultiReportOutput;
 import org.jacoco.report.IReportVisitor;
 import org.jacoco.report.ISourceFileLocator;
@@ -29,7 +28,7 @@ public final class HtmlReportGenerator extends BaseReportGenerator {
      *
      * @param productPaths Paths to Smallworld product directories.
      * @param sourcePaths Paths to regular (Java) source directories.
-     * @param executionDataFile File to {@literal jacoco.exec}.
+     * @param executionDataFiles Files to {@literal jacoco.exec}, merged.
      * @param reportDirectory File to report directory (HTML).
      * @param discardExecutable Discard executable.
      * @param discardNonMagik Discard non-Magik code.
@@ -38,7 +37,7 @@ public final class HtmlReportGenerator extends BaseReportGenerator {
     public HtmlReportGenerator(
             final List<Path> productPaths,
             final List<Path> sourcePaths,
-            final File executionDataFile,
+            final List<File> executionDataFiles,
             final File reportDirectory,
             final boolean discardExecutable,
             final boolean discardNonMagik,
@@ -46,7 +45,7 @@ public final class HtmlReportGenerator extends BaseReportGenerator {
         super(
             productPaths,
             sourcePaths,
-            executionDataFile,
+            executionDataFiles,
             reportDirectory,
             discardExecutable,
             discardNonMagik,
@@ -64,9 +63,9 @@ public final class HtmlReportGenerator extends BaseReportGenerator {
         final FileMultiReportOutput output = new FileMultiReportOutput(outputFile);
         final IReportVisitor visitor = htmlFormatter.createVisitor(output);
 
-        final ExecFileLoader execFileLoader = this.getExecFileLoader();
-        final List<SessionInfo> infos = execFileLoader.getSessionInfoStore().getInfos();
-        final Collection<ExecutionData> contents = execFileLoader.getExecutionDataStore().getContents();
+        final ExecutionDataLoader executionDataLoader = this.getExecutionDataLoader();
+        final List<SessionInfo> infos = executionDataLoader.getSessionInfoStore().getInfos();
+        final Collection<ExecutionData> contents = executionDataLoader.getExecutionDataStore().getContents();
         visitor.visitInfo(infos, contents);
 
         final ISourceFileLocator locator = this.getLocator();
@@ -75,4 +74,8 @@ public final class HtmlReportGenerator extends BaseReportGenerator {
         visitor.visitEnd();
     }
 
+    private MagikNames getMagikNames() {
+        return new MagikNames();
+    }
+
 }
@@ -0,0 +1,156 @@
+package nl.ramsolutions.sw.magik.jacoco.generators;
+
+import nl.ramsolutions.sw.magik.jacoco.conversion.MagikCoverageVisitor;
+import nl.ramsolutions.sw.magik.jacoco.helpers.SmallworldProducts;
+import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5ClassInfo;
+import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5LibBytecodeConsumer;
+import org.jacoco.core.analysis.Analyzer;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICoverageVisitor;
+import org.jacoco.core.data.ExecutionDataStore;
+
+import javax.annotation.CheckForNull;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Analyzes the classes read from libs (JaCoCo), while the libs are read.
+ *
+ * <p>
+ * Libs are read concurrently. Each lib is analyzed with its own {@link Analyzer}, as it is not thread-safe, on the
+ * thread reading the lib. The resulting coverage is buffered per lib, and passed to the shared {@link ICoverageVisitor}
+ * when the lib is flushed. Libs are flushed one at a time, in the order the libs were found, as soon as all earlier
+ * libs are read, thus the result does not depend on the number of threads used.
+ * </p>
+ *
+ * <p>
+ * A flushed lib passes its coverage on directly, while it is still being read. Only the coverage of the libs read
+ * ahead of an earlier lib is buffered. At most, when the first lib is read last, this is the coverage of all other
+ * libs.
+ * </p>
+ */
+final class LibClassAnalyzer implements Sw5LibBytecodeConsumer {
+
+    private final ExecutionDataStore executionDataStore;
+    private final ICoverageVisitor coverageVisitor;
+    private final Map<String, Sw5ClassInfo> classInfos;
+    private final MagikCoverageVisitor magikCoverageVisitor;
+    private final Map<Path, LibCoverageBuffer> libCoverageBuffers = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     * @param executionDataStore Execution data to analyze with.
+     * @param coverageVisitor Visitor to pass the coverage to.
+     */
+    LibClassAnalyzer(final ExecutionDataStore executionDataStore, final ICoverageVisitor coverageVisitor) {
+        this(executionDataStore, coverageVisitor, null, null);
+    }
+
+    private LibClassAnalyzer(
+            final ExecutionDataStore executionDataStore,
+            final ICoverageVisitor coverageVisitor,
+            @CheckForNull final Map<String, Sw5ClassInfo> classInfos,
+            @CheckForNull final MagikCoverageVisitor magikCoverageVisitor) {
+        this.executionDataStore = executionDataStore;
+        this.coverageVisitor = coverageVisitor;
+        this.classInfos = classInfos;
+        this.magikCoverageVisitor = magikCoverageVisitor;
+    }
+
+    /**
+     * Create a {@link LibClassAnalyzer}.
+     * @param executionDataStore Execution data to analyze with.
+     * @param coverageVisitor Visitor to pass the coverage to.
+     * @param streaming Convert the coverage to Magik coverage directly after analyzing a class.
+     * @param smallworldProducts Smallworld products of the libs.
+     * @param discardExecutable Discard executable.
+     * @param discardNonMagik Discard non-Magik code.
+     * @return {@link LibClassAnalyzer}.
+     */
+    static LibClassAnalyzer create(
+            final ExecutionDataStore executionDataStore,
+            final ICoverageVisitor coverageVisitor,
+            final boolean streaming,
+            final SmallworldProducts smallworldProducts,
+            final boolean discardExecutable,
+            final boolean discardNonMagik) {
+        if (!streaming) {
+            return new LibClassAnalyzer(executionDataStore, coverageVisitor);
+        }
+
+        return LibClassAnalyzer.streaming(
+            executionDataStore, coverageVisitor, smallworldProducts, discardExecutable, discardNonMagik);
+    }
+
+    /**
+     * Create a {@link LibClassAnalyzer} which converts the coverage to Magik coverage directly after analyzing a class.
+     * @param executionDataStore Execution data to analyze with.
+     * @param coverageVisitor Visitor to pass the converted coverage to.
+     * @param smallworldProducts Smallworld products of the libs.
+     * @param discardExecutable Discard executable.
+     * @param discardNonMagik Discard non-Magik code.
+     * @return Streaming {@link LibClassAnalyzer}.
+     */
+    static LibClassAnalyzer streaming(
+            final ExecutionDataStore executionDataStore,
+            final ICoverageVisitor coverageVisitor,
+            final SmallworldProducts smallworldProducts,
+            final boolean discardExecutable,
+            final boolean discardNonMagik) {
+        // Classes are registered before their coverage is visited.
+        final Map<String, Sw5ClassInfo> classInfos = new ConcurrentHashMap<>();
+        final MagikCoverageVisitor magikCoverageVisitor = new MagikCoverageVisitor(
+            classInfos::get, coverageVisitor, smallworldProducts, discardExecutable, discardNonMagik);
+        return new LibClassAnalyzer(executionDataStore, magikCoverageVisitor, classInfos, magikCoverageVisitor);
+    }
+
+    /**
+     * Classes are only consumed per lib, see {@link #forLib(Path)}.
+     */
+    @Override
+    public void accept(final Sw5ClassInfo classInfo, final byte[] bytecode, final String location) {
+        throw new UnsupportedOperationException("Classes are consumed per lib");
+    }
+
+    @Override
+    public Sw5LibBytecodeConsumer forLib(final Path archive) {
+        final LibCoverageBuffer libCoverageBuffer = this.getLibCoverageBuffer(archive);
+        final Analyzer analyzer = new Analyzer(this.executionDataStore, libCoverageBuffer::add);
+        return (classInfo, bytecode, location) -> {
+            this.register(classInfo);
+            analyzer.analyzeClass(bytecode, location);
+        };
+    }
+
+    @Override
+    public void flushLib(final Path archive) {
+        this.getLibCoverageBuffer(archive).flush();
+    }
+
+    private LibCoverageBuffer getLibCoverageBuffer(final Path archive) {
+        // A lib can be flushed before it is read.
+        return this.libCoverageBuffers.computeIfAbsent(archive, key -> new LibCoverageBuffer(this::visitCoverage));
+    }
+
+    private void register(final Sw5ClassInfo classInfo) {
+        if (this.classInfos != null) {
+            this.classInfos.put(classInfo.getName(), classInfo);
+        }
+    }
+
+    private synchronized void visitCoverage(final IClassCoverage classCoverage) {
+        this.coverageVisitor.visitCoverage(classCoverage);
+    }
+
+    /**
+     * Finish the analysis, after all libs are read.
+     */
+    synchronized void finish() {
+        if (this.magikCoverageVisitor != null) {
+            this.magikCoverageVisitor.flush();
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package nl.ramsolutions.sw.magik.jacoco.generators;
+
+import org.jacoco.core.analysis.IClassCoverage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Coverage of the classes of a single lib, buffered until the lib is flushed.
+ *
+ * <p>
+ * The buffered coverage is released when flushing. Coverage added after flushing is passed on directly. Thread-safe.
+ * </p>
+ */
+final class LibCoverageBuffer {
+
+    private final Consumer<IClassCoverage> coverageConsumer;
+    private List<IClassCoverage> classCoverages = new ArrayList<>();
+
+    /**
+     * Constructor.
+     * @param coverageConsumer Consumer to pass the coverage to.
+     */
+    LibCoverageBuffer(final Consumer<IClassCoverage> coverageConsumer) {
+        this.coverageConsumer = coverageConsumer;
+    }
+
+    /**
+     * Add the coverage of a class.
+     * @param classCoverage Coverage to add.
+     */
+    synchronized void add(final IClassCoverage classCoverage) {
+        if (this.classCoverages == null) {
+            this.coverageConsumer.accept(classCoverage);
+            return;
+        }
+
+        this.classCoverages.add(classCoverage);
+    }
+
+    /**
+     * Flush, pass on and release the buffered coverage.
+     */
+    synchronized void flush() {
+        if (this.classCoverages != null) {
+            this.classCoverages.forEach(this.coverageConsumer);
+            this.classCoverages = null;
+        }
+    }
+
+}
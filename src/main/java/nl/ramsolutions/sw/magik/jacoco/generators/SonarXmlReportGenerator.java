@@ -1,10 +1,10 @@
 package nl.ramsolutions.sw.magik.jacoco.generators;
 
+import nl.ramsolutions.sw.magik.jacoco.conversion.MagikBundleCoverageConverter;
 import nl.ramsolutions.sw.magik.jacoco.generators.sonar.SonarXmlFormatter;
 import org.jacoco.core.analysis.IBundleCoverage;
 import org.jacoco.core.data.ExecutionData;
 import org.jacoco.core.data.SessionInfo;
-import org.jacoco.core.tools.ExecFileLoader;
 import org.jacoco.report.IReportVisitor;
 import org.jacoco.report.ISourceFileLocator;
 
@@ -29,7 +29,7 @@ public class SonarXmlReportGenerator extends BaseReportGenerator {
      *
      * @param productPaths Paths to Smallworld product directories.
      * @param sourcePaths Paths to regular (Java) source directories.
-     * @param executionDataFile File to {@literal jacoco.exec}.
+     * @param executionDataFiles Files to {@literal jacoco.exec}, merged.
      * @param outputFile File to report file (XML).
      * @param discardExecutable Discard executable.
      * @param discardNonMagik Discard non-Magik code.
@@ -38,12 +38,26 @@ public class SonarXmlReportGenerator extends BaseReportGenerator {
     public SonarXmlReportGenerator(
             final List<Path> productPaths,
             final List<Path> sourcePaths,
-            final File executionDataFile,
+            final List<File> executionDataFiles,
             final File outputFile,
             final boolean discardExecutable,
             final boolean discardNonMagik,
             final String bundleName) {
-        super(productPaths, sourcePaths, executionDataFile, outputFile, discardExecutable, discardNonMagik, bundleName);
+        super(
+            productPaths,
+            sourcePaths,
+            executionDataFiles,
+            outputFile,
+            discardExecutable,
+            discardNonMagik,
+            bundleName);
+    }
+
+    @Override
+    protected IBundleCoverage convert(final MagikBundleCoverageConverter bundleCoverageConverter) {
+        // Only the lines of the source files are written, methods are not needed.
+        bundleCoverageConverter.setMethodsRequired(false);
+        return super.convert(bundleCoverageConverter);
     }
 
     @Override
@@ -53,9 +67,9 @@ public class SonarXmlReportGenerator extends BaseReportGenerator {
         try (FileOutputStream output = new FileOutputStream(outputFile)) {
             final IReportVisitor visitor = sonarNmlFormatter.createVisitor(output);
 
-            final ExecFileLoader execFileLoader = this.getExecFileLoader();
-            final List<SessionInfo> infos = execFileLoader.getSessionInfoStore().getInfos();
-            final Collection<ExecutionData> contents = execFileLoader.getExecutionDataStore().getContents();
+            final ExecutionDataLoader executionDataLoader = this.getExecutionDataLoader();
+            final List<SessionInfo> infos = executionDataLoader.getSessionInfoStore().getInfos();
+            final Collection<ExecutionData> contents = executionDataLoader.getExecutionDataStore().getContents();
             visitor.visitInfo(infos, contents);
 
             final ISourceFileLocator locator = this.getLocator();
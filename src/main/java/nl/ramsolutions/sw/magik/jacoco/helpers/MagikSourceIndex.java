@@ -0,0 +1,80 @@
+package nl.ramsolutions.sw.magik.jacoco.helpers;
+
+import java.io.IOException;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Index of the Magik source files of a product.
+ *
+ * <p>
+ * Source files are keyed on their name relative to the product, separated by {@code /}, as reported in the bytecode.
+ * The same directories are pruned as when finding products. Symbolic links are followed, links forming a cycle are
+ * skipped.
+ * </p>
+ */
+final class MagikSourceIndex extends SimpleFileVisitor<Path> {
+
+    private static final String MAGIK_EXTENSION = ".magik";
+
+    private final Path productPath;
+    private final Map<String, Path> sourcePaths = new HashMap<>();
+
+    private MagikSourceIndex(final Path productPath) {
+        this.productPath = productPath;
+    }
+
+    /**
+     * Build the index of the Magik source files of a product.
+     * @param productPath Directory of product.
+     * @return Paths to source files, keyed on name relative to the product.
+     * @throws IOException -
+     */
+    static Map<String, Path> build(final Path productPath) throws IOException {
+        final MagikSourceIndex index = new MagikSourceIndex(productPath);
+        Files.walkFileTree(productPath, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, index);
+        return Map.copyOf(index.sourcePaths);
+    }
+
+    @Override
+    public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) {
+        final Path fileName = dir.getFileName();
+        if (fileName != null
+            && SmallworldProductFinder.isPruned(fileName.toString())) {
+            return FileVisitResult.SKIP_SUBTREE;
+        }
+
+        return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+        final String fileName = file.getFileName().toString();
+        if (attrs.isRegularFile()
+            && fileName.endsWith(MAGIK_EXTENSION)) {
+            final String relativeName = this.productPath.relativize(file).toString().replace('\\', '/');
+            this.sourcePaths.put(relativeName, file);
+        }
+
+        return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFileFailed(final Path file, final IOException exception) throws IOException {
+        if (exception instanceof FileSystemLoopException) {
+            // Linked directory already being visited.
+            return FileVisitResult.CONTINUE;
+        }
+
+        throw exception;
+    }
+
+}
@@ -6,30 +6,47 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Scanner;
 
 /**
  * Smallworld product.
+ *
+ * <p>
+ * The name of the product is read from its {@code product.def} once, on construction. The Magik source files of the
+ * product are indexed once, on first use, after which source files are resolved without accessing the file system.
+ * </p>
  */
 class SmallworldProduct {
 
     public static final String PRODUCT_DEF = "product.def";
     private static final Path PRODUCT_DEF_PATH = Path.of(PRODUCT_DEF);
-    private static final String PACKAGE_MAGIK_PREFIX = "magik";
 
     private final Path productPath;
-
-    SmallworldProduct(final Path productPath) {
+    private final String productName;
+    private volatile Map<String, Path> sourceIndex;
+
+    /**
+     * Constructor.
+     * @param productPath Directory of product.
+     * @throws IOException -
+     */
+    SmallworldProduct(final Path productPath) throws IOException {
         this.productPath = productPath;
+        this.productName = SmallworldProduct.readProductName(productPath);
     }
 
     public Path getProductPath() {
         return this.productPath;
     }
 
-    public String getProductName() throws IOException {
-        final Path definitionFilePath = this.productPath.resolve(PRODUCT_DEF_PATH);
+    public String getProductName() {
+        return this.productName;
+    }
+
+    private static String readProductName(final Path productPath) throws IOException {
+        final Path definitionFilePath = productPath.resolve(PRODUCT_DEF_PATH);
         final List<String> lines = Files.readAllLines(definitionFilePath);
         final Optional<String> optDefLine = lines.stream()
             .map(String::trim)
@@ -46,37 +63,37 @@ class SmallworldProduct {
         }
     }
 
-    @SuppressWarnings("checkstyle:MagicNumber")
-    public boolean containsPackage(final String packageName) throws IOException {
-        final String[] parts = packageName.split("/");
-        if (parts.length != 3) {
-            throw new IllegalArgumentException("Invalid package name");
-        }
-
-        final String magik = parts[0];
-        final String product = parts[1];
-        // moduleName: parts[2]
+    /**
+     * Get the path to a source file of this product.
+     * @param fileName Name of source file, relative to the product.
+     * @return Path to source file, or null if it does not exist.
+     */
+    @CheckForNull
+    public Path getSourcePath(final String fileName) {
+        return this.getSourceIndex().get(fileName);
+    }
 
-        if (!magik.equals(PACKAGE_MAGIK_PREFIX)) {
-            throw new IllegalArgumentException("Invalid package name");
+    private Map<String, Path> getSourceIndex() {
+        Map<String, Path> index = this.sourceIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = this.sourceIndex;
+                if (index == null) {
+                    index = SmallworldProduct.buildSourceIndex(this.productPath);
+                    this.sourceIndex = index;
+                }
+            }
         }
 
-        final String productName = this.getProductName();
-        return product.equalsIgnoreCase(productName);
+        return index;
     }
 
-    @CheckForNull
-    public Path getSourcePath(final String packageName, final String fileName) throws IOException {
-        if (!this.containsPackage(packageName)) {
-            throw new IllegalStateException("Invalid product for package");
+    private static Map<String, Path> buildSourceIndex(final Path productPath) {
+        try {
+            return MagikSourceIndex.build(productPath);
+        } catch (final IOException exception) {
+            throw new IllegalStateException(exception);
         }
-
-        final Path path = this.productPath.resolve(fileName);
-        if (!Files.isRegularFile(path)) {
-            return null;
-        }
-
-        return path;
     }
 
 }
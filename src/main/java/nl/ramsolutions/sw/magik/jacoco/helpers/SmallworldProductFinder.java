@@ -0,0 +1,125 @@
+package nl.ramsolutions.sw.magik.jacoco.helpers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Finds Smallworld products, i.e., directories containing a {@code product.def}.
+ *
+ * <p>
+ * Directories which cannot hold products are pruned: {@code libs} and VCS directories, and modules, i.e., directories
+ * containing a {@code module.def}. Each directory is listed only once. The top-level subtrees are walked in parallel,
+ * on the given number of threads. Products are returned in a stable order, regardless of the order of the directory
+ * listings.
+ * </p>
+ */
+final class SmallworldProductFinder {
+
+    private static final String MODULE_DEF = "module.def";
+    private static final Set<String> PRUNED_DIRECTORY_NAMES = Set.of("libs", ".git", ".svn", ".hg", ".bzr", "CVS");
+
+    private final List<Path> productPaths = new ArrayList<>();
+
+    private SmallworldProductFinder() {
+    }
+
+    /**
+     * Find products.
+     * @param path Directory to search in.
+     * @param threads Number of threads to walk the top-level subtrees with.
+     * @return Directories of found products.
+     * @throws IOException -
+     */
+    static List<Path> find(final Path path, final int threads) throws IOException {
+        final SmallworldProductFinder rootFinder = new SmallworldProductFinder();
+        final List<Path> subdirectories = new ArrayList<>();
+        if (!rootFinder.visitDirectory(path, subdirectories)) {
+            return rootFinder.productPaths;
+        }
+
+        final List<Path> productPaths = new ArrayList<>(rootFinder.productPaths);
+        final ForkJoinPool forkJoinPool = new ForkJoinPool(threads);
+        try {
+            // Parallel streams started from within the pool, run on the pool.
+            forkJoinPool.submit(() -> subdirectories.parallelStream()
+                    .map(SmallworldProductFinder::findInSubtree)
+                    .forEachOrdered(productPaths::addAll))
+                .join();
+        } catch (final UncheckedIOException exception) {
+            throw exception.getCause();
+        } finally {
+            forkJoinPool.shutdown();
+        }
+
+        return productPaths;
+    }
+
+    private static List<Path> findInSubtree(final Path path) {
+        final SmallworldProductFinder finder = new SmallworldProductFinder();
+        try {
+            finder.walk(path);
+        } catch (final IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+
+        return finder.productPaths;
+    }
+
+    private void walk(final Path path) throws IOException {
+        final List<Path> subdirectories = new ArrayList<>();
+        if (this.visitDirectory(path, subdirectories)) {
+            for (final Path subdirectory : subdirectories) {
+                this.walk(subdirectory);
+            }
+        }
+    }
+
+    /**
+     * Visit a directory, registering it as a product if it is one.
+     * @param path Directory to visit.
+     * @param subdirectories Subdirectories to descend into, filled by this method.
+     * @return True if the subdirectories should be descended into, false if this directory is a module.
+     * @throws IOException -
+     */
+    private boolean visitDirectory(final Path path, final List<Path> subdirectories) throws IOException {
+        boolean isModule = false;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+            for (final Path entry : stream) {
+                final String name = entry.getFileName().toString();
+                if (name.equalsIgnoreCase(SmallworldProduct.PRODUCT_DEF)) {
+                    this.productPaths.add(path);
+                }
+                isModule |= name.equalsIgnoreCase(MODULE_DEF);
+                if (SmallworldProductFinder.isSearchable(entry, name)) {
+                    subdirectories.add(entry);
+                }
+            }
+        }
+
+        subdirectories.sort(null);
+        return !isModule;
+    }
+
+    private static boolean isSearchable(final Path entry, final String name) {
+        return !SmallworldProductFinder.isPruned(name)
+            && Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS);
+    }
+
+    /**
+     * Test if a directory is pruned, i.e., never searched.
+     * @param name Name of directory.
+     * @return True if pruned, false otherwise.
+     */
+    static boolean isPruned(final String name) {
+        return PRUNED_DIRECTORY_NAMES.contains(name);
+    }
+
+}
@@ -3,73 +3,97 @@ package nl.ramsolutions.sw.magik.jacoco.helpers;
 import javax.annotation.CheckForNull;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
-import java.util.function.BiPredicate;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Smallworld products, found in product directories.
+ *
+ * <p>
+ * Products are indexed on name once, when found. The product of each package is resolved only once as well. Thread
+ * safe.
+ * </p>
+ */
 public class SmallworldProducts {
 
-    private final List<SmallworldProduct> products;
+    private static final String PACKAGE_MAGIK_PREFIX = "magik";
+    private static final int PACKAGE_NAME_PARTS = 3;
+
+    private final Map<String, SmallworldProduct> productsByName = new HashMap<>();
+    private final Map<String, Optional<SmallworldProduct>> productsByPackage = new ConcurrentHashMap<>();
 
     public SmallworldProducts(final List<Path> productPaths) {
-        this.products = SmallworldProducts.buildProducts(productPaths);
+        this(productPaths, Runtime.getRuntime().availableProcessors());
     }
 
-    private static List<SmallworldProduct> buildProducts(final List<Path> productPaths) {
-        return productPaths.stream()
-            .map(productPath -> {
-                try {
-                    return SmallworldProducts.findProducts(productPath);
-                } catch (final IOException exception) {
-                    throw new IllegalStateException(exception);
-                }
-            })
-            .flatMap(List::stream)
-            .collect(Collectors.toList());
+    /**
+     * Constructor.
+     * @param productPaths Directories to search for products in.
+     * @param threads Number of threads to search with.
+     */
+    public SmallworldProducts(final List<Path> productPaths, final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be at least 1");
+        }
+
+        for (final Path productPath : productPaths) {
+            try {
+                SmallworldProducts.findProducts(productPath, threads).forEach(this::addProduct);
+            } catch (final IOException exception) {
+                throw new IllegalStateException(exception);
+            }
+        }
     }
 
-    private static List<SmallworldProduct> findProducts(final Path productPath) throws IOException {
-        final BiPredicate<Path, BasicFileAttributes> pred = (path, attrs) -> {
-            final String filename = path.getFileName().toString();
-            return filename.equalsIgnoreCase(SmallworldProduct.PRODUCT_DEF);
-        };
-        try (Stream<Path> findStream = Files.find(productPath, Integer.MAX_VALUE, pred)) {
-            return findStream
-                .map(path -> {
-                    final Path parentPath = path.getParent();
-                    if (parentPath == null) {
-                        return Path.of("");
-                    }
+    private void addProduct(final SmallworldProduct product) {
+        // The first product found with a name wins.
+        final String key = product.getProductName().toLowerCase(Locale.ENGLISH);
+        this.productsByName.putIfAbsent(key, product);
+    }
 
-                    return parentPath;
-                })
-                .map(SmallworldProduct::new)
-                .collect(Collectors.toList());
+    private static List<SmallworldProduct> findProducts(final Path productPath, final int threads)
+            throws IOException {
+        final List<SmallworldProduct> products = new ArrayList<>();
+        for (final Path path : SmallworldProductFinder.find(productPath, threads)) {
+            products.add(new SmallworldProduct(path));
         }
+        return products;
     }
 
+    /**
+     * Get the path to a source file.
+     * @param packageName Name of package, i.e., {@code magik/product/module}.
+     * @param fileName Name of source file, relative to the product.
+     * @return Path to source file, or null if the product or file is not found.
+     */
     @CheckForNull
-    public Path getSourcePath(final String packageName, final String fileName) throws IOException {
-        final Optional<SmallworldProduct> optionalProduct = this.products.stream()
-            .filter(prod -> {
-                try {
-                    return prod.containsPackage(packageName);
-                } catch (final IOException exception) {
-                    throw new IllegalStateException(exception);
-                }
-            })
-            .findFirst();
-        if (!optionalProduct.isPresent()) {
+    public Path getSourcePath(final String packageName, final String fileName) {
+        final SmallworldProduct product = this.productsByPackage
+            .computeIfAbsent(packageName, this::findProduct)
+            .orElse(null);
+        if (product == null) {
             return null;
         }
 
-        final SmallworldProduct product = optionalProduct.get();
-        return product.getSourcePath(packageName, fileName);
+        return product.getSourcePath(fileName);
+    }
+
+    private Optional<SmallworldProduct> findProduct(final String packageName) {
+        final String[] parts = packageName.split("/");
+        if (parts.length != PACKAGE_NAME_PARTS
+            || !parts[0].equals(PACKAGE_MAGIK_PREFIX)) {
+            throw new IllegalArgumentException("Invalid package name: " + packageName);
+        }
+
+        // parts[2] is the module name.
+        final String key = parts[1].toLowerCase(Locale.ENGLISH);
+        return Optional.ofNullable(this.productsByName.get(key));
     }
 
 }
@@ -1,69 +1,64 @@
 package nl.ramsolutions.sw.magik.jacoco.helpers;
 
-import org.jacoco.report.InputStreamSourceFileLocator;
+import org.jacoco.report.ISourceFileLocator;
 
 import javax.annotation.CheckForNull;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.Reader;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
+import java.io.StringReader;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 
 /**
- * {@link InputStreamSourceFileLocator} for Smallworld/Magik products.
+ * {@link ISourceFileLocator} for Smallworld/Magik products.
+ *
+ * <p>
+ * Source file contents are cached, such that a source file requested multiple times is only read once.
+ * </p>
  */
-public class SmallworldProductsSourceFileLocator extends InputStreamSourceFileLocator {
+public class SmallworldProductsSourceFileLocator implements ISourceFileLocator {
 
     private static final int TAB_WIDTH = 8;
-    private static final Charset DEFAULT_ENCODING = StandardCharsets.ISO_8859_1;
     private static final String PACKAGE_MAGIK_PREFIX = "magik/";
 
+    private static final long MAX_CACHED_SIZE = 64L * 1024L * 1024L;
+
     private final SmallworldProducts smallworldProducts;
+    private final SourceContentCache contentCache = new SourceContentCache(MAX_CACHED_SIZE);
 
     /**
      * Constructor.
-     * @param productPath Directory to Smallworld product.
+     * @param smallworldProducts Smallworld products to locate source files in.
      */
     public SmallworldProductsSourceFileLocator(final SmallworldProducts smallworldProducts) {
-        super(DEFAULT_ENCODING.name(), TAB_WIDTH);
         this.smallworldProducts = smallworldProducts;
     }
 
     @CheckForNull
     @Override
     public Reader getSourceFile(final String packageName, final String fileName) throws IOException {
-        if (packageName.startsWith(PACKAGE_MAGIK_PREFIX)) {
-            final Path filePath = this.smallworldProducts.getSourcePath(packageName, fileName);
-            if (filePath == null) {
-                return null;
-            }
-
-            final String filePathStr = filePath.toString();
-            final InputStream in = this.getSourceStream(filePathStr);
-            if (in == null) {
-                return null;
-            }
-
-            return new InputStreamReader(in, DEFAULT_ENCODING);
+        if (!packageName.startsWith(PACKAGE_MAGIK_PREFIX)) {
+            return null;
         }
 
-        return null;
-    }
+        final Path filePath = this.smallworldProducts.getSourcePath(packageName, fileName);
+        if (filePath == null) {
+            return null;
+        }
 
-    @CheckForNull
-    @Override
-    protected InputStream getSourceStream(final String path) throws IOException {
-        final File file = new File(path);
-        if (!file.isFile()) {
+        try {
+            final String content = this.contentCache.get(filePath);
+            return new StringReader(content);
+        } catch (final NoSuchFileException exception) {
+            // Removed after the product was indexed.
             return null;
         }
+    }
 
-        return new FileInputStream(file);
+    @Override
+    public int getTabWidth() {
+        return TAB_WIDTH;
     }
 
 }
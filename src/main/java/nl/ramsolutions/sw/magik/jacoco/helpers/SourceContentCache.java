@@ -0,0 +1,101 @@
+package nl.ramsolutions.sw.magik.jacoco.helpers;
+
+import javax.annotation.CheckForNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size bounded, least recently used, cache of ISO-8859-1 source file contents.
+ *
+ * <p>
+ * As ISO-8859-1 is a single-byte encoding, the content is decoded by copying the bytes directly into a (compact)
+ * {@link String}. Thread safe.
+ * </p>
+ */
+final class SourceContentCache {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final long maxSize;
+    private final Map<Path, String> contents = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+    private long size;
+    private long hits;
+    private long misses;
+
+    /**
+     * Constructor.
+     * @param maxSize Maximum total size of cached contents, in characters.
+     */
+    SourceContentCache(final long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Get the content of a source file, reading it if not cached.
+     * @param path Path to source file.
+     * @return Content of source file.
+     * @throws IOException -
+     */
+    String get(final Path path) throws IOException {
+        final String cachedContent = this.getCached(path);
+        if (cachedContent != null) {
+            return cachedContent;
+        }
+
+        // Read outside of the lock, a concurrent read of the same file is harmless.
+        final String content = SourceContentCache.read(path);
+        this.put(path, content);
+        return content;
+    }
+
+    synchronized long getHits() {
+        return this.hits;
+    }
+
+    synchronized long getMisses() {
+        return this.misses;
+    }
+
+    @CheckForNull
+    private synchronized String getCached(final Path path) {
+        final String content = this.contents.get(path);
+        if (content == null) {
+            this.misses++;
+        } else {
+            this.hits++;
+        }
+        return content;
+    }
+
+    private synchronized void put(final Path path, final String content) {
+        if (content.length() > this.maxSize) {
+            return;
+        }
+
+        final String previousContent = this.contents.put(path, content);
+        if (previousContent != null) {
+            this.size -= previousContent.length();
+        }
+        this.size += content.length();
+
+        // Evict least recently used contents.
+        final Iterator<String> iterator = this.contents.values().iterator();
+        while (this.size > this.maxSize) {
+            this.size -= iterator.next().length();
+            iterator.remove();
+        }
+    }
+
+    private static String read(final Path path) throws IOException {
+        final byte[] bytes = Files.readAllBytes(path);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+}
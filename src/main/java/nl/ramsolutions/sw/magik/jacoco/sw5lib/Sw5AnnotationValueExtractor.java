@@ -0,0 +1,25 @@
+package nl.ramsolutions.sw.magik.jacoco.sw5lib;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Passes the (primitive/String) values of an annotation to a consumer.
+ */
+final class Sw5AnnotationValueExtractor extends AnnotationVisitor {
+
+    private final BiConsumer<String, Object> valueConsumer;
+
+    Sw5AnnotationValueExtractor(final BiConsumer<String, Object> valueConsumer) {
+        super(Opcodes.ASM9);
+        this.valueConsumer = valueConsumer;
+    }
+
+    @Override
+    public void visit(final String name, final Object value) {
+        this.valueConsumer.accept(name, value);
+    }
+
+}
@@ -0,0 +1,139 @@
+package nl.ramsolutions.sw.magik.jacoco.sw5lib;
+
+import javax.annotation.CheckForNull;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Smallworld/Magik class, as read from a lib.
+ *
+ * <p>
+ * Only the information required for the analysis is kept, the bytecode itself is not retained. Methods are indexed
+ * on name once, making lookups by name constant-time. The {@code execute()} method is resolved once as well.
+ * </p>
+ */
+public final class Sw5ClassInfo {
+
+    private static final String CODE_TYPE_PRIMARY = "Primary";
+    private static final String CODE_TYPE_SUBSIDIARY = "Subsidiary";
+    private static final String EXECUTE_METHOD = "execute";
+
+    private final String name;
+    private final String codeType;
+    private final String subsidiaryClassName;
+    private final List<Sw5MethodInfo> methods;
+    private final Map<String, Sw5MethodInfo> methodsByName = new HashMap<>();
+    private final Sw5MethodInfo executeMethod;
+
+    /**
+     * Constructor.
+     * @param name Internal name of the class.
+     * @param codeType Value of the {@code @CodeType} annotation, if any.
+     * @param subsidiaryClassName Internal name of the class loaded by the {@code preload} method, if any.
+     * @param methods Methods, in order of declaration.
+     */
+    public Sw5ClassInfo(
+            final String name,
+            @CheckForNull final String codeType,
+            @CheckForNull final String subsidiaryClassName,
+            final List<Sw5MethodInfo> methods) {
+        this.name = name;
+        this.codeType = codeType;
+        this.subsidiaryClassName = subsidiaryClassName;
+        this.methods = List.copyOf(methods);
+
+        // On overloaded methods, the first declared method wins.
+        this.methods.forEach(methodInfo -> this.methodsByName.putIfAbsent(methodInfo.getName(), methodInfo));
+        this.executeMethod = this.methods.stream()
+            .filter(Sw5MethodInfo::isTopLevel)
+            .findFirst()
+            .orElse(null);
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    @CheckForNull
+    public String getCodeType() {
+        return this.codeType;
+    }
+
+    /**
+     * Test if this is a primary class.
+     * @return True if primary class, false otherwise.
+     */
+    public boolean isPrimary() {
+        return CODE_TYPE_PRIMARY.equals(this.codeType);
+    }
+
+    /**
+     * Test if this is a subsidiary class.
+     * @return True if subsidiary class, false otherwise.
+     */
+    public boolean isSubsidiary() {
+        return CODE_TYPE_SUBSIDIARY.equals(this.codeType);
+    }
+
+    /**
+     * Get the name of the subsidiary class, as loaded by the {@code preload} method.
+     * @return Internal name of the subsidiary class, if any.
+     */
+    @CheckForNull
+    public String getSubsidiaryClassName() {
+        return this.subsidiaryClassName;
+    }
+
+    /**
+     * Get all methods, in order of declaration.
+     * @return Methods.
+     */
+    public List<Sw5MethodInfo> getMethods() {
+        return this.methods;
+    }
+
+    /**
+     * Get {@link Sw5MethodInfo} by name.
+     * @param methodName Name of method.
+     * @return {@link Sw5MethodInfo} for name.
+     */
+    public Sw5MethodInfo getMethod(final String methodName) {
+        final Sw5MethodInfo methodInfo = this.methodsByName.get(methodName);
+        if (methodInfo == null) {
+            throw new NoSuchElementException("No method found: " + methodName);
+        }
+
+        return methodInfo;
+    }
+
+    /**
+     * Get {@link Sw5MethodInfo} by name, safe.
+     * @param methodName Name of method.
+     * @return {@link Sw5MethodInfo} for name, if found.
+     */
+    @CheckForNull
+    public Sw5MethodInfo getMethodSafe(final String methodName) {
+        return this.methodsByName.get(methodName);
+    }
+
+    /**
+     * Get the {@code execute()} method, i.e., the top level method of a primary class.
+     * @return {@link Sw5MethodInfo} of the {@code execute()} method.
+     */
+    public Sw5MethodInfo getExecuteMethod() {
+        if (this.executeMethod == null) {
+            throw new IllegalStateException("No " + EXECUTE_METHOD + "() method found");
+        }
+
+        return this.executeMethod;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s(%s)", this.getClass().getSimpleName(), this.name);
+    }
+
+}
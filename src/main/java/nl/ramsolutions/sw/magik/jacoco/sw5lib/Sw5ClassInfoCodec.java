@@ -0,0 +1,130 @@
+package nl.ramsolutions.sw.magik.jacoco.sw5lib;
+
+import javax.annotation.CheckForNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary (de)serialization of {@link Sw5ClassInfo}s, used by {@link Sw5LibCache}.
+ */
+final class Sw5ClassInfoCodec {
+
+    private Sw5ClassInfoCodec() {
+    }
+
+    /**
+     * Write the classes of a lib.
+     * @param output Output to write to.
+     * @param namedClasses Classes, keyed on entry name.
+     * @throws IOException -
+     */
+    static void writeNamedClasses(final DataOutput output, final Map<String, Sw5ClassInfo> namedClasses)
+            throws IOException {
+        output.writeInt(namedClasses.size());
+        for (final Map.Entry<String, Sw5ClassInfo> entry : namedClasses.entrySet()) {
+            output.writeUTF(entry.getKey());
+            Sw5ClassInfoCodec.writeClassInfo(output, entry.getValue());
+        }
+    }
+
+    /**
+     * Read the classes of a lib.
+     * @param input Input to read from.
+     * @return Classes, keyed on entry name.
+     * @throws IOException -
+     */
+    static Map<String, Sw5ClassInfo> readNamedClasses(final DataInput input) throws IOException {
+        final int size = input.readInt();
+        final Map<String, Sw5ClassInfo> namedClasses = new HashMap<>();
+        for (int i = 0; i < size; ++i) {
+            final String name = input.readUTF();
+            final Sw5ClassInfo classInfo = Sw5ClassInfoCodec.readClassInfo(input);
+            namedClasses.put(name, classInfo);
+        }
+        return namedClasses;
+    }
+
+    private static void writeClassInfo(final DataOutput output, final Sw5ClassInfo classInfo) throws IOException {
+        output.writeUTF(classInfo.getName());
+        Sw5ClassInfoCodec.writeNullableString(output, classInfo.getCodeType());
+        Sw5ClassInfoCodec.writeNullableString(output, classInfo.getSubsidiaryClassName());
+        final List<Sw5MethodInfo> methods = classInfo.getMethods();
+        output.writeInt(methods.size());
+        for (final Sw5MethodInfo methodInfo : methods) {
+            Sw5ClassInfoCodec.writeMethodInfo(output, methodInfo);
+        }
+    }
+
+    private static Sw5ClassInfo readClassInfo(final DataInput input) throws IOException {
+        final String name = input.readUTF();
+        final String codeType = Sw5ClassInfoCodec.readNullableString(input);
+        final String subsidiaryClassName = Sw5ClassInfoCodec.readNullableString(input);
+        final int methodCount = input.readInt();
+        // Not presized, a corrupt count runs into the end of the input instead of an arbitrary allocation.
+        final List<Sw5MethodInfo> methods = new ArrayList<>();
+        for (int i = 0; i < methodCount; ++i) {
+            methods.add(Sw5ClassInfoCodec.readMethodInfo(input));
+        }
+        return new Sw5ClassInfo(name, codeType, subsidiaryClassName, methods);
+    }
+
+    private static void writeMethodInfo(final DataOutput output, final Sw5MethodInfo methodInfo) throws IOException {
+        output.writeUTF(methodInfo.getName());
+        output.writeBoolean(methodInfo.isTopLevel());
+        Sw5ClassInfoCodec.writeNullableString(output, methodInfo.getParentMethodName());
+        Sw5ClassInfoCodec.writeStringMap(output, methodInfo.getMethodNames());
+        Sw5ClassInfoCodec.writeStringMap(output, methodInfo.getProcNames());
+    }
+
+    private static Sw5MethodInfo readMethodInfo(final DataInput input) throws IOException {
+        final String name = input.readUTF();
+        final boolean topLevel = input.readBoolean();
+        final String parentMethodName = Sw5ClassInfoCodec.readNullableString(input);
+        final Map<String, String> methodNames = Sw5ClassInfoCodec.readStringMap(input);
+        final Map<String, String> procNames = Sw5ClassInfoCodec.readStringMap(input);
+        return new Sw5MethodInfo(name, topLevel, parentMethodName, methodNames, procNames);
+    }
+
+    private static void writeStringMap(final DataOutput output, final Map<String, String> map) throws IOException {
+        output.writeInt(map.size());
+        for (final Map.Entry<String, String> entry : map.entrySet()) {
+            output.writeUTF(entry.getKey());
+            output.writeUTF(entry.getValue());
+        }
+    }
+
+    private static Map<String, String> readStringMap(final DataInput input) throws IOException {
+        final int size = input.readInt();
+        final Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < size; ++i) {
+            final String key = input.readUTF();
+            final String value = input.readUTF();
+            map.put(key, value);
+        }
+        return map;
+    }
+
+    private static void writeNullableString(final DataOutput output, @CheckForNull final String value)
+            throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    @CheckForNull
+    private static String readNullableString(final DataInput input) throws IOException {
+        if (!input.readBoolean()) {
+            return null;
+        }
+
+        return input.readUTF();
+    }
+
+}
@@ -0,0 +1,100 @@
+package nl.ramsolutions.sw.magik.jacoco.sw5lib;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Extracts a {@link Sw5ClassInfo} from bytecode, in a single pass.
+ *
+ * <p>
+ * Only the facts needed for the analysis are recorded, such as the {@code @CodeType} and {@code @Parent} annotations,
+ * the class loaded by {@code preload()}, and the Magik methods/procs defined. No tree of the class is built.
+ * </p>
+ */
+final class Sw5ClassInfoExtractor extends ClassVisitor {
+
+    private static final String ANNOTATION_CODE_TYPE = "Lcom/gesmallworld/magik/commons/runtime/annotations/CodeType;";
+    private static final String PRELOAD_METHOD = "preload";
+
+    private final List<Sw5MethodInfoExtractor> methodInfoExtractors = new ArrayList<>();
+    private String name;
+    private String codeType;
+
+    private Sw5ClassInfoExtractor() {
+        super(Opcodes.ASM9);
+    }
+
+    /**
+     * Extract the {@link Sw5ClassInfo} from bytecode.
+     * @param bytecode Bytecode of class.
+     * @return Extracted {@link Sw5ClassInfo}.
+     */
+    static Sw5ClassInfo extract(final byte[] bytecode) {
+        final ClassReader classReader = new ClassReader(bytecode);
+        final Sw5ClassInfoExtractor extractor = new Sw5ClassInfoExtractor();
+        classReader.accept(extractor, ClassReader.SKIP_FRAMES);
+        return extractor.getClassInfo();
+    }
+
+    private Sw5ClassInfo getClassInfo() {
+        final List<Sw5MethodInfo> methodInfos = this.methodInfoExtractors.stream()
+            .map(Sw5MethodInfoExtractor::getMethodInfo)
+            .collect(Collectors.toList());
+        final String subsidiaryClassName = this.methodInfoExtractors.stream()
+            .filter(extractor -> extractor.getName().equals(PRELOAD_METHOD))
+            .map(Sw5MethodInfoExtractor::getFirstLdcValue)
+            .filter(Type.class::isInstance)
+            .map(Type.class::cast)
+            .map(Type::getInternalName)
+            .findFirst()
+            .orElse(null);
+        return new Sw5ClassInfo(this.name, this.codeType, subsidiaryClassName, methodInfos);
+    }
+
+    @Override
+    public void visit(
+            final int version,
+            final int access,
+            final String className,
+            final String signature,
+            final String superName,
+            final String[] interfaces) {
+        this.name = className;
+    }
+
+    @Override
+    public AnnotationVisitor visitAnnotation(final String descriptor, final boolean visible) {
+        if (visible && descriptor.equals(ANNOTATION_CODE_TYPE)) {
+            return new Sw5AnnotationValueExtractor(this::visitCodeTypeValue);
+        }
+
+        return null;
+    }
+
+    private void visitCodeTypeValue(final String valueName, final Object value) {
+        if (this.codeType == null && value instanceof String) {
+            this.codeType = (String) value;
+        }
+    }
+
+    @Override
+    public MethodVisitor visitMethod(
+            final int access,
+            final String methodName,
+            final String descriptor,
+            final String signature,
+            final String[] exceptions) {
+        final Sw5MethodInfoExtractor methodInfoExtractor = new Sw5MethodInfoExtractor(methodName);
+        this.methodInfoExtractors.add(methodInfoExtractor);
+        return methodInfoExtractor;
+    }
+
+}
@@ -0,0 +1,160 @@
+package nl.ramsolutions.sw.magik.jacoco.sw5lib;
+
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import javax.annotation.CheckForNull;
+
+/**
+ * Tracks the last run of consecutive {@code LDC} instructions of a method.
+ *
+ * <p>
+ * Any other instruction ends the current run, the next {@code LDC} instruction starts a new run. Only the first values
+ * of a run are kept, up to the capacity, in a fixed array which is reused for each run.
+ * </p>
+ */
+abstract class Sw5LdcRunVisitor extends MethodVisitor {
+
+    private final Object[] ldcValues;
+    private int ldcCount;
+    private boolean previousIsLdc;
+
+    /**
+     * Constructor.
+     * @param capacity Maximum number of {@code LDC} values to keep of a run.
+     * @param methodVisitor Method visitor to delegate to, if any.
+     */
+    Sw5LdcRunVisitor(final int capacity, @CheckForNull final MethodVisitor methodVisitor) {
+        super(Opcodes.ASM9, methodVisitor);
+        this.ldcValues = new Object[capacity];
+    }
+
+    /**
+     * Get the number of {@code LDC} instructions in the last run, including those not kept.
+     * @return Number of {@code LDC} instructions.
+     */
+    int getLdcCount() {
+        return this.ldcCount;
+    }
+
+    /**
+     * Get a kept value of the last run.
+     * @param index Index of value in run.
+     * @return Value.
+     */
+    Object getLdcValue(final int index) {
+        return this.ldcValues[index];
+    }
+
+    @Override
+    public void visitLdcInsn(final Object value) {
+        if (!this.previousIsLdc) {
+            // Start of a new sequence of LDC instructions.
+            this.ldcCount = 0;
+        }
+
+        if (this.ldcCount < this.ldcValues.length) {
+            this.ldcValues[this.ldcCount] = value;
+        }
+
+        this.ldcCount++;
+        this.previousIsLdc = true;
+        super.visitLdcInsn(value);
+    }
+
+    @Override
+    public void visitMethodInsn(
+            final int opcode,
+            final String owner,
+            final String name,
+            final String descriptor,
+            final boolean isInterface) {
+        this.previousIsLdc = false;
+        super.visitMethodInsn(opcode, owner, name, descriptor, isInterface);
+    }
+
+    @Override
+    public void visitInsn(final int opcode) {
+        this.previousIsLdc = false;
+        super.visitInsn(opcode);
+    }
+
+    @Override
+    public void visitIntInsn(final int opcode, final int operand) {
+        this.previousIsLdc = false;
+        super.visitIntInsn(opcode, operand);
+    }
+
+    @Override
+    public void visitVarInsn(final int opcode, final int varIndex) {
+        this.previousIsLdc = false;
+        super.visitVarInsn(opcode, varIndex);
+    }
+
+    @Override
+    public void visitTypeInsn(final int opcode, final String type) {
+        this.previousIsLdc = false;
+        super.visitTypeInsn(opcode, type);
+    }
+
+    @Override
+    public void visitFieldInsn(final int opcode, final String owner, final String name, final String descriptor) {
+        this.previousIsLdc = false;
+        super.visitFieldInsn(opcode, owner, name, descriptor);
+    }
+
+    @Override
+    public void visitInvokeDynamicInsn(
+            final String name,
+            final String descriptor,
+            final Handle bootstrapMethodHandle,
+            final Object... bootstrapMethodArguments) {
+        this.previousIsLdc = false;
+        super.visitInvokeDynamicInsn(name, descriptor, bootstrapMethodHandle, bootstrapMethodArguments);
+    }
+
+    @Override
+    public void visitJumpInsn(final int opcode, final Label label) {
+        this.previousIsLdc = false;
+        super.visitJumpInsn(opcode, label);
+    }
+
+    @Override
+    public void visitLabel(final Label label) {
+        this.previousIsLdc = false;
+        super.visitLabel(label);
+    }
+
+    @Override
+    public void visitIincInsn(final int varIndex, final int increment) {
+        this.previousIsLdc = false;
+        super.visitIincInsn(varIndex, increment);
+    }
+
+    @Override
+    public void visitTableSwitchInsn(final int min, final int max, final Label dflt, final Label... labels) {
+        this.previousIsLdc = false;
+        super.visitTableSwitchInsn(min, max, dflt, labels);
+    }
+
+    @Override
+    public void visitLookupSwitchInsn(final Label dflt, final int[] keys, final Label[] labels) {
+        this.previousIsLdc = false;
+        super.visitLookupSwitchInsn(dflt, keys, labels);
+    }
+
+    @Override
+    public void visitMultiANewArrayInsn(final String descriptor, final int numDimensions) {
+        this.previousIsLdc = false;
+        super.visitMultiANewArrayInsn(descriptor, numDimensions);
+    }
+
+    @Override
+    public void visitLineNumber(final int line, final Label start) {
+        this.previousIsLdc = false;
+        super.visitLineNumber(line, start);
+    }
+
+}
@@ -1,31 +1,29 @@
 package nl.ramsolutions.sw.magik.jacoco.sw5lib;
 
-import nl.ramsolutions.sw.magik.jacoco.helpers.MethodNodeHelper;
-import org.objectweb.asm.tree.ClassNode;
-import org.objectweb.asm.tree.MethodNode;
-
 import javax.annotation.CheckForNull;
 
 import java.nio.file.Path;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Lib analyzer.
  *
  * <p>
- * Extracts exemplar/method definitions from class nodes.
+ * Extracts exemplar/method definitions from classes.
+ * </p>
+ *
+ * <p>
+ * The Java to Magik name mapping is built lazily, in parallel, and only once. It is safe to use this class from
+ * multiple threads.
  * </p>
  */
 public final class Sw5LibAnalyzer {
 
     private final Sw5LibReader libReader;
-    private Map<ClassNode, ClassNode> classDependencyMap;
-    private Map<String, String> methodNameMap;
+    private final int threads;
+    private final Object methodNameMapLock = new Object();
+    private volatile Map<String, Sw5RankedName> methodNameMap;
 
     /**
      * Constructor.
@@ -33,7 +31,22 @@ public final class Sw5LibAnalyzer {
      * @param libReader Library reader used for analysis.
      */
     public Sw5LibAnalyzer(final Sw5LibReader libReader) {
+        this(libReader, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param libReader Library reader used for analysis.
+     * @param threads Number of threads to build the Java to Magik name mapping with.
+     */
+    public Sw5LibAnalyzer(final Sw5LibReader libReader, final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be at least 1");
+        }
+
         this.libReader = libReader;
+        this.threads = threads;
     }
 
     public List<Path> getProductPaths() {
@@ -41,35 +54,21 @@ public final class Sw5LibAnalyzer {
     }
 
     /**
-     * Get a {@link ClassNode} by its name.
-     * @param className {@link ClassNode} name.
-     * @return {@link ClassNode}, if found.
+     * Get a {@link Sw5ClassInfo} by its name.
+     * @param className {@link Sw5ClassInfo} name.
+     * @return {@link Sw5ClassInfo}, if found.
      */
     @CheckForNull
-    public ClassNode getClassByName(final String className) {
+    public Sw5ClassInfo getClassByName(final String className) {
         return this.libReader.getClassByName(className);
     }
 
-    public Map<MethodNode, MethodNode> getMethodDependencyMap(
-            final ClassNode providerNode,
-            final ClassNode supplierNode) {
-        // Move this from Sw5LibMethodDependencyBuilder to here?
-        return Sw5LibDependencyBuilder.buildMethodDependencyMap(providerNode, supplierNode);
-    }
-
     /**
      * Get the primary/subsidiary class mapping.
      * @return Mapping keyed on primary class, valued on subsidiary class.
      */
-    public Map<ClassNode, ClassNode> getClassDependencyMap() {
-        if (this.classDependencyMap == null) {
-            final Collection<ClassNode> primaryClassNodes = this.libReader.getPrimaryClassNodes();
-            final Collection<ClassNode> subsidiaryClassNodes = this.libReader.getSubsidiaryClassNodes();
-            this.classDependencyMap =
-                Sw5LibDependencyBuilder.buildClassDependencyMap(primaryClassNodes, subsidiaryClassNodes);
-        }
-
-        return Collections.unmodifiableMap(this.classDependencyMap);
+    public Map<Sw5ClassInfo, Sw5ClassInfo> getClassDependencyMap() {
+        return this.libReader.getClassDependencyMap();
     }
 
     /**
@@ -80,56 +79,60 @@ public final class Sw5LibAnalyzer {
      */
     @CheckForNull
     public String getMagikMethodName(final String javaClassName, final String javaMethodName) {
-        final Map<String, String> methodNames = this.getMethodNameMap();
+        final Map<String, Sw5RankedName> methodNames = this.getMethodNameMap();
+        return Sw5LibAnalyzer.getMagikMethodName(methodNames, javaClassName, javaMethodName);
+    }
+
+    /**
+     * Get the Magik method from a Java class/method combination.
+     * @param methodNameMap Mapping from Java class/method to Magik exemplar/method names.
+     * @param javaClassName Name of Java class.
+     * @param javaMethodName Name of Java method.
+     * @return Magik method name.
+     */
+    private static String getMagikMethodName(
+            final Map<String, Sw5RankedName> methodNameMap,
+            final String javaClassName,
+            final String javaMethodName) {
         final String completeJavaName = Sw5LibAnalyzer.keyForClassMethodName(javaClassName, javaMethodName);
-        final String magikName = methodNames.get(completeJavaName);
+        final Sw5RankedName magikName = methodNameMap.get(completeJavaName);
         if (magikName == null) {
             final String msg = "Could not find mapped method, key: " + completeJavaName;
             throw new IllegalStateException(msg);
         }
 
-        return magikName;
+        return magikName.getName();
     }
 
     /**
-     * Create a mapping from Java class/method names to Magik exemplar/method names.
+     * Get the mapping from Java class/method names to Magik exemplar/method names, building it on first use.
      * @return Mapping from Java class/method to Magik exemplar/method names.
      */
-    private Map<String, String> getMethodNameMap() {
-        if (this.methodNameMap == null) {
-            final Map<String, String> methodMapping = this.libReader.getPrimaryClassNodes().stream()
-                .map(MethodNodeHelper::getExecuteMethod)
-                .map(Sw5LibMethodNameExtractor::extractMethodNames)
-                .flatMap(mapping -> mapping.entrySet().stream())
-                .collect(Collectors.toMap(
-                    Map.Entry::getKey,
-                    Map.Entry::getValue));
-
-            final Map<String, String> procMappingExec = this.libReader.getPrimaryClassNodes().stream()
-                .map(MethodNodeHelper::getExecuteMethod)
-                .map(Sw5LibProcNameExtractor::extractProcNames)
-                .flatMap(mapping -> mapping.entrySet().stream())
-                .collect(Collectors.toMap(
-                    Map.Entry::getKey,
-                    Map.Entry::getValue));
-            final Map<String, String> procMappingSub = this.libReader.getSubsidiaryClassNodes().stream()
-                .flatMap(classNode -> classNode.methods.stream())
-                .map(Sw5LibProcNameExtractor::extractProcNames)
-                .flatMap(mapping -> mapping.entrySet().stream())
-                .collect(Collectors.toMap(
-                    Map.Entry::getKey,
-                    Map.Entry::getValue));
-
-            this.methodNameMap = new HashMap<>();
-            this.methodNameMap.putAll(methodMapping);
-            this.methodNameMap.putAll(procMappingExec);
-            this.methodNameMap.putAll(procMappingSub);
+    private Map<String, Sw5RankedName> getMethodNameMap() {
+        Map<String, Sw5RankedName> nameMap = this.methodNameMap;
+        if (nameMap == null) {
+            synchronized (this.methodNameMapLock) {
+                nameMap = this.methodNameMap;
+                if (nameMap == null) {
+                    nameMap = Sw5LibNameMapBuilder.buildMethodNameMap(
+                        this.libReader.getPrimaryClasses(),
+                        this.libReader.getSubsidiaryClasses(),
+                        this.threads);
+                    this.methodNameMap = nameMap;
+                }
+            }
         }
 
-        return this.methodNameMap;
+        return nameMap;
     }
 
-    static String keyForClassMethodName(final String javaClassName, final String javaMethodName) {
+    /**
+     * Get the key of a Java class/method name, as used in the method/proc name mappings of {@link Sw5MethodInfo}.
+     * @param javaClassName Name of Java class.
+     * @param javaMethodName Name of Java method.
+     * @return Key of Java class/method name.
+     */
+    public static String keyForClassMethodName(final String javaClassName, final String javaMethodName) {
         return javaClassName.replace("/", ".") + "." + javaMethodName;
     }
 
@@ -0,0 +1,103 @@
+package nl.ramsolutions.sw.magik.jacoco.sw5lib;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Opened lib, with an index of its (Magik) class entries.
+ */
+final class Sw5LibArchive implements AutoCloseable {
+
+    private static final String CLASS_EXTENSION = ".class";
+    private static final String MAGIK_PACKAGE_PREFIX = "magik/";
+
+    private final Path archive;
+    private final ZipFile zipFile;
+    private final Map<String, ZipEntry> classEntries = new LinkedHashMap<>();
+
+    /**
+     * Constructor.
+     * @param archive Lib to open.
+     * @param magikOnly Only index the entries of Magik packages.
+     * @throws IOException -
+     */
+    Sw5LibArchive(final Path archive, final boolean magikOnly) throws IOException {
+        this.archive = archive;
+        this.zipFile = new ZipFile(archive.toFile());
+
+        final Enumeration<? extends ZipEntry> entries = this.zipFile.entries();
+        while (entries.hasMoreElements()) {
+            final ZipEntry entry = entries.nextElement();
+            final String name = entry.getName();
+            final boolean isMagik = Sw5LibArchive.isMagikEntry(name);
+            if (!isMagik && (magikOnly || !name.endsWith(CLASS_EXTENSION))) {
+                // Never inflated.
+                continue;
+            }
+
+            this.classEntries.put(name, entry);
+        }
+    }
+
+    /**
+     * Get the names of the class entries, in order of the lib.
+     * @return Entry names.
+     */
+    Set<String> getEntryNames() {
+        return Collections.unmodifiableSet(this.classEntries.keySet());
+    }
+
+    /**
+     * Get the location of an entry, in the form {@code path/to/lib.jar@path/to/class.class}.
+     * @param entryName Name of entry.
+     * @return Location of entry.
+     */
+    String getLocation(final String entryName) {
+        return this.archive + "@" + entryName;
+    }
+
+    /**
+     * Test if entry is an actual class file.
+     * @param entryName Name of entry.
+     * @return True if class file, false otherwise.
+     */
+    static boolean isClassFile(final String entryName) {
+        return entryName.endsWith(CLASS_EXTENSION);
+    }
+
+    /**
+     * Test if entry is part of a Magik package.
+     * @param entryName Name of entry.
+     * @return True if part of a Magik package, false otherwise.
+     */
+    static boolean isMagikEntry(final String entryName) {
+        return entryName.startsWith(MAGIK_PACKAGE_PREFIX);
+    }
+
+    /**
+     * Read the bytecode of an entry.
+     * @param entryName Name of entry.
+     * @return Bytecode.
+     * @throws IOException -
+     */
+    byte[] readBytecode(final String entryName) throws IOException {
+        final ZipEntry entry = this.classEntries.get(entryName);
+        try (InputStream inputStream = this.zipFile.getInputStream(entry)) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.zipFile.close();
+    }
+
+}
@@ -0,0 +1,125 @@
+package nl.ramsolutions.sw.magik.jacoco.sw5lib;
+
+import javax.annotation.CheckForNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads the classes of a single lib, from the cache if possible, keeping only the touched classes if requested.
+ *
+ * <p>
+ * The cache saves extracting the {@link Sw5ClassInfo}s, i.e., the ASM pass over each class. When a
+ * {@link Sw5LibBytecodeConsumer} is given, the lib is still opened and the consumed classes are still inflated, as
+ * the JaCoCo analysis requires their bytecode. When only the touched classes are kept, only those are inflated.
+ * </p>
+ *
+ * <p>
+ * When only touched classes are kept, and the lib is not cached yet, all classes are extracted once to fill the cache.
+ * The touched classes are selected from these, on later runs as well.
+ * </p>
+ */
+final class Sw5LibArchiveLoader {
+
+    private final Sw5LibCache cache;
+    private final Set<String> touchedEntryNames;
+    private final Sw5LibBytecodeConsumer bytecodeConsumer;
+    private final boolean magikOnly;
+
+    /**
+     * Constructor.
+     * @param cachePath Directory to cache the classes read from jars in, if any.
+     * @param touchedClassNames Internal names of the touched classes to keep, or null to keep all classes.
+     * @param bytecodeConsumer Consumer of the bytecode of the kept classes, if any.
+     * @param magikOnly Only read the classes of Magik packages.
+     * @throws IOException -
+     */
+    Sw5LibArchiveLoader(
+            @CheckForNull final Path cachePath,
+            @CheckForNull final Collection<String> touchedClassNames,
+            @CheckForNull final Sw5LibBytecodeConsumer bytecodeConsumer,
+            final boolean magikOnly) throws IOException {
+        this.cache = cachePath != null
+            ? new Sw5LibCache(cachePath)
+            : null;
+        this.touchedEntryNames = Sw5TouchedClassSelector.toEntryNames(touchedClassNames);
+        this.bytecodeConsumer = bytecodeConsumer;
+        this.magikOnly = magikOnly;
+    }
+
+    /**
+     * Load the classes of a lib.
+     * @param archive Lib to load.
+     * @return Classes, keyed on entry name.
+     * @throws IOException -
+     */
+    Map<String, Sw5ClassInfo> load(final Path archive) throws IOException {
+        if (this.cache == null) {
+            return this.read(archive, null);
+        }
+
+        final Sw5LibCacheKey key = Sw5LibCacheKey.of(archive, this.magikOnly);
+        final Map<String, Sw5ClassInfo> cachedClasses = this.cache.load(key);
+        if (cachedClasses != null) {
+            return this.readCached(archive, cachedClasses);
+        }
+
+        if (this.touchedEntryNames != null) {
+            // Extract all classes once to cache them, the touched classes are selected from these.
+            final Map<String, Sw5ClassInfo> namedClasses =
+                Sw5LibArchiveReader.readNamedClasses(archive, null, null, null, this.magikOnly);
+            this.cache.store(key, namedClasses);
+            return this.readCached(archive, namedClasses);
+        }
+
+        // Single pass over the lib, extracting and consuming all classes.
+        final Map<String, Sw5ClassInfo> namedClasses = this.read(archive, null);
+        this.cache.store(key, namedClasses);
+        return namedClasses;
+    }
+
+    private Map<String, Sw5ClassInfo> readCached(
+            final Path archive,
+            final Map<String, Sw5ClassInfo> cachedClasses) throws IOException {
+        if (this.bytecodeConsumer != null) {
+            // The bytecode is still required, but the classes are not extracted again.
+            return this.read(archive, cachedClasses);
+        }
+
+        // Nothing left to do with the lib itself.
+        return this.touchedEntryNames != null
+            ? Sw5TouchedClassSelector.select(cachedClasses, this.touchedEntryNames)
+            : cachedClasses;
+    }
+
+    private Map<String, Sw5ClassInfo> read(
+            final Path archive,
+            @CheckForNull final Map<String, Sw5ClassInfo> cachedClasses) throws IOException {
+        return Sw5LibArchiveReader.readNamedClasses(
+            archive, cachedClasses, this.touchedEntryNames, this.getLibBytecodeConsumer(archive), this.magikOnly);
+    }
+
+    @CheckForNull
+    private Sw5LibBytecodeConsumer getLibBytecodeConsumer(final Path archive) {
+        if (this.bytecodeConsumer == null) {
+            return null;
+        }
+
+        return this.bytecodeConsumer.forLib(archive);
+    }
+
+    /**
+     * Flush a lib, after all earlier libs are loaded.
+     * @param archive Lib to flush.
+     * @throws IOException -
+     */
+    void flush(final Path archive) throws IOException {
+        if (this.bytecodeConsumer != null) {
+            this.bytecodeConsumer.flushLib(archive);
+        }
+    }
+
+}
@@ -0,0 +1,158 @@
+package nl.ramsolutions.sw.magik.jacoco.sw5lib;
+
+import javax.annotation.CheckForNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the {@link Sw5ClassInfo}s from a single lib.
+ *
+ * <p>
+ * Each entry is inflated at most once. The bytecode is passed to the {@link Sw5LibBytecodeConsumer}, if any, as well,
+ * such that no other pass over the lib is needed.
+ * </p>
+ *
+ * <p>
+ * When touched entry names are given, only those classes are read, together with the classes required to merge them:
+ * the subsidiary classes of touched primary classes, and the classes in the package of touched subsidiary classes of
+ * which the primary class is not yet known.
+ * </p>
+ */
+final class Sw5LibArchiveReader {
+
+    private final Sw5LibArchive archive;
+    private final Sw5LibBytecodeConsumer bytecodeConsumer;
+    private final Map<String, Sw5ClassInfo> namedClasses = new HashMap<>();
+    private final Map<String, byte[]> bytecodes = new HashMap<>();
+
+    private Sw5LibArchiveReader(
+            final Sw5LibArchive archive,
+            @CheckForNull final Sw5LibBytecodeConsumer bytecodeConsumer) {
+        this.archive = archive;
+        this.bytecodeConsumer = bytecodeConsumer;
+    }
+
+    /**
+     * Read the classes of a lib.
+     * @param archive Lib to read.
+     * @return Classes, keyed on entry name.
+     * @throws IOException -
+     */
+    static Map<String, Sw5ClassInfo> readNamedClasses(final Path archive) throws IOException {
+        return Sw5LibArchiveReader.readNamedClasses(archive, null, null, null, false);
+    }
+
+    /**
+     * Read the classes of a lib.
+     * @param archive Lib to read.
+     * @param cachedClasses Classes of the lib from cache, used instead of extracting them again, if any.
+     * @param touchedEntryNames Entry names of touched classes to read, or null to read all classes.
+     * @param bytecodeConsumer Consumer of the bytecode of the read classes, if any.
+     * @param magikOnly Only read the classes of Magik packages.
+     * @return Classes, keyed on entry name.
+     * @throws IOException -
+     */
+    static Map<String, Sw5ClassInfo> readNamedClasses(
+            final Path archive,
+            @CheckForNull final Map<String, Sw5ClassInfo> cachedClasses,
+            @CheckForNull final Set<String> touchedEntryNames,
+            @CheckForNull final Sw5LibBytecodeConsumer bytecodeConsumer,
+            final boolean magikOnly) throws IOException {
+        try (Sw5LibArchive libArchive = new Sw5LibArchive(archive, magikOnly)) {
+            final Sw5LibArchiveReader archiveReader = new Sw5LibArchiveReader(libArchive, bytecodeConsumer);
+            archiveReader.namedClasses.putAll(Objects.requireNonNullElse(cachedClasses, Map.of()));
+
+            if (touchedEntryNames == null) {
+                return archiveReader.readAllClasses();
+            }
+
+            return archiveReader.readTouchedClasses(touchedEntryNames);
+        } catch (final IOException | RuntimeException exception) {
+            throw new IOException("Error while reading lib: " + archive, exception);
+        }
+    }
+
+    private Map<String, Sw5ClassInfo> readAllClasses() throws IOException {
+        // Single pass: every entry is both extracted and consumed directly after inflating it.
+        for (final String entryName : this.archive.getEntryNames()) {
+            final byte[] bytecode = this.archive.readBytecode(entryName);
+            this.extractClass(entryName, bytecode);
+            this.consumeClass(entryName, bytecode);
+        }
+
+        return this.namedClasses;
+    }
+
+    private Map<String, Sw5ClassInfo> readTouchedClasses(final Set<String> touchedEntryNames) throws IOException {
+        // Classes already known from cache are not extracted again.
+        this.extractTouchedClasses(touchedEntryNames);
+
+        final Map<String, Sw5ClassInfo> selectedClasses =
+            Sw5TouchedClassSelector.select(this.namedClasses, touchedEntryNames);
+        for (final String entryName : this.archive.getEntryNames()) {
+            if (selectedClasses.containsKey(entryName)) {
+                final byte[] bytecode = this.bytecodes.containsKey(entryName)
+                    ? this.bytecodes.get(entryName)
+                    : this.archive.readBytecode(entryName);
+                this.consumeClass(entryName, bytecode);
+            }
+        }
+
+        return selectedClasses;
+    }
+
+    private void extractTouchedClasses(final Set<String> touchedEntryNames) throws IOException {
+        // Touched classes themselves.
+        final List<String> touchedNames = this.archive.getEntryNames().stream()
+            .filter(touchedEntryNames::contains)
+            .collect(Collectors.toList());
+        this.extractClasses(touchedNames);
+
+        // Subsidiary classes of touched primary classes.
+        final List<String> subsidiaryNames = this.namedClasses.values().stream()
+            .map(Sw5TouchedClassSelector::partnerEntryName)
+            .filter(this.archive.getEntryNames()::contains)
+            .collect(Collectors.toList());
+        this.extractClasses(subsidiaryNames);
+
+        // Touched subsidiary classes without a known primary class, search their packages.
+        final Set<String> orphanPackages = Sw5TouchedClassSelector.orphanPackages(this.namedClasses);
+        final List<String> packageNames = this.archive.getEntryNames().stream()
+            .filter(entryName -> orphanPackages.contains(Sw5TouchedClassSelector.packageOf(entryName)))
+            .collect(Collectors.toList());
+        this.extractClasses(packageNames);
+    }
+
+    private void extractClasses(final List<String> entryNames) throws IOException {
+        for (final String entryName : entryNames) {
+            if (!this.namedClasses.containsKey(entryName)) {
+                // Keep the bytecode, for when the class is selected to be consumed.
+                final byte[] bytecode = this.archive.readBytecode(entryName);
+                this.bytecodes.put(entryName, bytecode);
+                this.extractClass(entryName, bytecode);
+            }
+        }
+    }
+
+    private void extractClass(final String entryName, final byte[] bytecode) {
+        // Extract class info, unless already known from cache. Bytecode is dropped afterwards.
+        this.namedClasses.computeIfAbsent(entryName, name -> Sw5ClassInfoExtractor.extract(bytecode));
+    }
+
+    private void consumeClass(final String entryName, final byte[] bytecode) throws IOException {
+        if (this.bytecodeConsumer != null
+            && Sw5LibArchive.isClassFile(entryName)) {
+            final Sw5ClassInfo classInfo = this.namedClasses.get(entryName);
+            final String location = this.archive.getLocation(entryName);
+            this.bytecodeConsumer.accept(classInfo, bytecode, location);
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+package nl.ramsolutions.sw.magik.jacoco.sw5lib;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Consumer of the bytecode of classes read from libs, such as a JaCoCo analyzer.
+ *
+ * <p>
+ * Libs are read concurrently, thus implementations must be thread-safe. Alternatively, a separate consumer can be
+ * given for each lib, see {@link #forLib(Path)}. Once all earlier libs are read, {@link #flushLib(Path)} is called for
+ * a lib, possibly while it is still being read. This is done by a single thread, in the order the libs were found.
+ * </p>
+ */
+@FunctionalInterface
+public interface Sw5LibBytecodeConsumer {
+
+    /**
+     * Consume the bytecode of a class.
+     * @param classInfo Class read from the bytecode.
+     * @param bytecode Bytecode of the class.
+     * @param location Location of the class, i.e., {@code path/to/lib.jar@path/to/class.class}.
+     * @throws IOException -
+     */
+    void accept(Sw5ClassInfo classInfo, byte[] bytecode, String location) throws IOException;
+
+    /**
+     * Get the consumer of the classes of a single lib, used only by the thread reading the lib.
+     * @param archive Lib to get the consumer for.
+     * @return Consumer of the classes of the lib, this consumer by default.
+     */
+    default Sw5LibBytecodeConsumer forLib(final Path archive) {
+        return this;
+    }
+
+    /**
+     * Flush a lib, after all classes of the earlier libs are consumed. Classes of the lib may still be consumed after
+     * flushing it.
+     * @param archive Lib to flush.
+     * @throws IOException -
+     */
+    default void flushLib(final Path archive) throws IOException {
+        // Nothing to do by default.
+    }
+
+}
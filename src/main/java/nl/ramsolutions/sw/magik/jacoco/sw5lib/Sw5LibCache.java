@@ -0,0 +1,179 @@
+package nl.ramsolutions.sw.magik.jacoco.sw5lib;
+
+import javax.annotation.CheckForNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Persistent cache of the classes read from libs.
+ *
+ * <p>
+ * For each lib, a cache file is stored in the cache directory. The cache file is valid when the size and modification
+ * time of the lib are unchanged. When the modification time has changed, the content hash of the lib is compared
+ * instead, and the modification time in the cache file is refreshed if the content is the same. This way, a lib is
+ * only read again when it actually has changed, and only hashed once after it was touched.
+ * </p>
+ *
+ * <p>
+ * A cache file holds either all classes of a lib, or only the classes of Magik packages. The former is used for both,
+ * the classes of other packages are then filtered when loading.
+ * </p>
+ */
+final class Sw5LibCache {
+
+    private static final int FORMAT_VERSION = 3;
+    private static final String CACHE_FILE_EXTENSION = ".sw5cache";
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private final Path cachePath;
+
+    /**
+     * Constructor.
+     * @param cachePath Directory to store cache files in, created if it does not exist.
+     * @throws IOException -
+     */
+    Sw5LibCache(final Path cachePath) throws IOException {
+        this.cachePath = Files.createDirectories(cachePath);
+    }
+
+    /**
+     * Load the cached classes of a lib.
+     *
+     * <p>
+     * A missing, unreadable or corrupt cache file is treated as not cached.
+     * </p>
+     * @param key Key of lib to load the cached classes for.
+     * @return Classes, keyed on entry name, or null if not cached or cache is outdated.
+     */
+    @CheckForNull
+    Map<String, Sw5ClassInfo> load(final Sw5LibCacheKey key) {
+        final Path cacheFile = this.getCacheFile(key.getArchive());
+        final Sw5LibCacheKey cachedKey;
+        final Map<String, Sw5ClassInfo> namedClasses;
+        try (InputStream inputStream = Files.newInputStream(cacheFile);
+             DataInputStream input = new DataInputStream(new BufferedInputStream(inputStream))) {
+            if (input.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+
+            cachedKey = Sw5LibCacheKey.read(input);
+            if (!key.isSatisfiedBy(cachedKey)) {
+                return null;
+            }
+
+            namedClasses = Sw5ClassInfoCodec.readNamedClasses(input);
+        } catch (final IOException | RuntimeException exception) {
+            // Missing, unreadable or corrupt cache file, treat as not cached.
+            return null;
+        }
+
+        this.refresh(key, cachedKey, namedClasses);
+        return Sw5LibCache.select(key, cachedKey, namedClasses);
+    }
+
+    private void refresh(
+            final Sw5LibCacheKey key,
+            final Sw5LibCacheKey cachedKey,
+            final Map<String, Sw5ClassInfo> namedClasses) {
+        if (key.getLastModified() != cachedKey.getLastModified()) {
+            // Same content, but touched. Store the new modification time, so the lib is not hashed again.
+            final Sw5LibCacheKey refreshedKey = cachedKey.withLastModified(key.getLastModified());
+            this.store(key.getArchive(), refreshedKey, namedClasses);
+        }
+    }
+
+    private static Map<String, Sw5ClassInfo> select(
+            final Sw5LibCacheKey key,
+            final Sw5LibCacheKey cachedKey,
+            final Map<String, Sw5ClassInfo> namedClasses) {
+        if (key.isMagikOnly() == cachedKey.isMagikOnly()) {
+            return namedClasses;
+        }
+
+        // All classes are cached, but only those of Magik packages are requested.
+        return namedClasses.entrySet().stream()
+            .filter(entry -> Sw5LibArchive.isMagikEntry(entry.getKey()))
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    /**
+     * Store the classes of a lib.
+     *
+     * <p>
+     * Storing is best-effort, a cache file which cannot be written, e.g. in a read-only cache directory, is skipped.
+     * </p>
+     * @param key Key of lib to store the classes for, as used to load the classes.
+     * @param namedClasses Classes, keyed on entry name.
+     */
+    void store(final Sw5LibCacheKey key, final Map<String, Sw5ClassInfo> namedClasses) {
+        this.store(key.getArchive(), key, namedClasses);
+    }
+
+    private void store(
+            final Path archive,
+            final Sw5LibCacheKey key,
+            final Map<String, Sw5ClassInfo> namedClasses) {
+        // Write to a temporary file first, so concurrent runs never see a partially written cache file.
+        final Path cacheFile = this.getCacheFile(archive);
+        try {
+            final Path tempFile = Files.createTempFile(this.cachePath, null, CACHE_FILE_EXTENSION);
+            try {
+                Sw5LibCache.write(tempFile, key, namedClasses);
+                Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (final IOException exception) {
+            // Not cached, the lib is read again on the next run.
+        }
+    }
+
+    private static void write(
+            final Path file,
+            final Sw5LibCacheKey key,
+            final Map<String, Sw5ClassInfo> namedClasses) throws IOException {
+        try (OutputStream outputStream = Files.newOutputStream(file);
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream))) {
+            output.writeInt(FORMAT_VERSION);
+            key.write(output);
+            Sw5ClassInfoCodec.writeNamedClasses(output, namedClasses);
+        }
+    }
+
+    private Path getCacheFile(final Path archive) {
+        final String archivePath = archive.toAbsolutePath().normalize().toString();
+        final byte[] pathHash = Sw5LibCache.newDigest().digest(archivePath.getBytes(StandardCharsets.UTF_8));
+        return this.cachePath.resolve(Sw5LibCache.toHex(pathHash) + CACHE_FILE_EXTENSION);
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (final NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final StringBuilder builder = new StringBuilder();
+        for (final byte value : bytes) {
+            builder.append(String.format("%02x", value));
+        }
+        return builder.toString();
+    }
+
+}
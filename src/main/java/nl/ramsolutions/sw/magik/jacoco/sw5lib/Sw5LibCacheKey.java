@@ -0,0 +1,147 @@
+package nl.ramsolutions.sw.magik.jacoco.sw5lib;
+
+import javax.annotation.CheckForNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * Key of the cached classes of a lib, stored as the header of the cache file.
+ *
+ * <p>
+ * Consists of the size, modification time and content hash of the lib, and whether only the classes of Magik packages
+ * were read. The content hash of a lib is only computed when needed, at most once.
+ * </p>
+ */
+final class Sw5LibCacheKey {
+
+    private final Path archive;
+    private final long size;
+    private final long lastModified;
+    private final boolean magikOnly;
+    private byte[] contentHash;
+
+    private Sw5LibCacheKey(
+            @CheckForNull final Path archive,
+            final long size,
+            final long lastModified,
+            @CheckForNull final byte[] contentHash,
+            final boolean magikOnly) {
+        this.archive = archive;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.contentHash = contentHash;
+        this.magikOnly = magikOnly;
+    }
+
+    /**
+     * Create the key for reading a lib.
+     * @param archive Lib to read.
+     * @param magikOnly Only the classes of Magik packages are read.
+     * @return Key of lib.
+     * @throws IOException -
+     */
+    static Sw5LibCacheKey of(final Path archive, final boolean magikOnly) throws IOException {
+        final BasicFileAttributes attributes = Files.readAttributes(archive, BasicFileAttributes.class);
+        final long lastModified = attributes.lastModifiedTime().toMillis();
+        return new Sw5LibCacheKey(archive, attributes.size(), lastModified, null, magikOnly);
+    }
+
+    /**
+     * Read a key, as written by {@link #write(DataOutput)}.
+     * @param input Input to read from.
+     * @return Key.
+     * @throws IOException -
+     */
+    static Sw5LibCacheKey read(final DataInput input) throws IOException {
+        final long size = input.readLong();
+        final long lastModified = input.readLong();
+        // Fixed length hash, a corrupt cache file cannot cause an arbitrary allocation.
+        final byte[] contentHash = new byte[Sw5LibCache.newDigest().getDigestLength()];
+        input.readFully(contentHash);
+        final boolean magikOnly = input.readBoolean();
+        return new Sw5LibCacheKey(null, size, lastModified, contentHash, magikOnly);
+    }
+
+    /**
+     * Write this key.
+     * @param output Output to write to.
+     * @throws IOException -
+     */
+    void write(final DataOutput output) throws IOException {
+        final byte[] hash = this.getContentHash();
+        output.writeLong(this.size);
+        output.writeLong(this.lastModified);
+        output.write(hash);
+        output.writeBoolean(this.magikOnly);
+    }
+
+    Path getArchive() {
+        return this.archive;
+    }
+
+    long getLastModified() {
+        return this.lastModified;
+    }
+
+    boolean isMagikOnly() {
+        return this.magikOnly;
+    }
+
+    /**
+     * Get a copy of this key, with another modification time.
+     * @param newLastModified New modification time.
+     * @return Copy of key.
+     */
+    Sw5LibCacheKey withLastModified(final long newLastModified) {
+        return new Sw5LibCacheKey(this.archive, this.size, newLastModified, this.contentHash, this.magikOnly);
+    }
+
+    /**
+     * Test if the classes cached under another key can be used for this key.
+     *
+     * <p>
+     * The content of the lib is only hashed if the modification time differs.
+     * </p>
+     * @param cachedKey Key of cached classes.
+     * @return True if the cached classes can be used, false otherwise.
+     * @throws IOException -
+     */
+    boolean isSatisfiedBy(final Sw5LibCacheKey cachedKey) throws IOException {
+        return this.isCoveredBy(cachedKey)
+            && this.size == cachedKey.size
+            && this.hasSameContent(cachedKey);
+    }
+
+    private boolean isCoveredBy(final Sw5LibCacheKey cachedKey) {
+        // All classes cover the classes of Magik packages, but not the other way around.
+        return !cachedKey.magikOnly || this.magikOnly;
+    }
+
+    private boolean hasSameContent(final Sw5LibCacheKey cachedKey) throws IOException {
+        return this.lastModified == cachedKey.lastModified
+            || Arrays.equals(this.getContentHash(), cachedKey.getContentHash());
+    }
+
+    private byte[] getContentHash() throws IOException {
+        if (this.contentHash == null) {
+            final MessageDigest digest = Sw5LibCache.newDigest();
+            try (InputStream inputStream = new DigestInputStream(Files.newInputStream(this.archive), digest)) {
+                inputStream.transferTo(OutputStream.nullOutputStream());
+            }
+            this.contentHash = digest.digest();
+        }
+
+        return this.contentHash;
+    }
+
+}
@@ -0,0 +1,65 @@
+package nl.ramsolutions.sw.magik.jacoco.sw5lib;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classification of the classes read from libs, built once.
+ *
+ * <p>
+ * Each class is classified exactly once as primary, subsidiary or regular class. The primary/subsidiary links are
+ * resolved at the same time.
+ * </p>
+ */
+final class Sw5LibClassIndex {
+
+    private final List<Sw5ClassInfo> primaryClasses;
+    private final List<Sw5ClassInfo> subsidiaryClasses;
+    private final List<Sw5ClassInfo> regularClasses;
+    private final Map<Sw5ClassInfo, Sw5ClassInfo> classDependencyMap;
+
+    /**
+     * Constructor.
+     * @param classInfos Classes to classify.
+     */
+    Sw5LibClassIndex(final Collection<Sw5ClassInfo> classInfos) {
+        final List<Sw5ClassInfo> primaries = new ArrayList<>();
+        final List<Sw5ClassInfo> subsidiaries = new ArrayList<>();
+        final List<Sw5ClassInfo> regulars = new ArrayList<>();
+        for (final Sw5ClassInfo classInfo : classInfos) {
+            if (classInfo.isPrimary()) {
+                primaries.add(classInfo);
+            } else if (classInfo.isSubsidiary()) {
+                subsidiaries.add(classInfo);
+            } else {
+                regulars.add(classInfo);
+            }
+        }
+
+        this.primaryClasses = Collections.unmodifiableList(primaries);
+        this.subsidiaryClasses = Collections.unmodifiableList(subsidiaries);
+        this.regularClasses = Collections.unmodifiableList(regulars);
+        this.classDependencyMap = Collections.unmodifiableMap(
+            Sw5LibDependencyBuilder.buildClassDependencyMap(primaries, subsidiaries));
+    }
+
+    Collection<Sw5ClassInfo> getPrimaryClasses() {
+        return this.primaryClasses;
+    }
+
+    Collection<Sw5ClassInfo> getSubsidiaryClasses() {
+        return this.subsidiaryClasses;
+    }
+
+    Collection<Sw5ClassInfo> getRegularClasses() {
+        return this.regularClasses;
+    }
+
+    Map<Sw5ClassInfo, Sw5ClassInfo> getClassDependencyMap() {
+        return this.classDependencyMap;
+    }
+
+}
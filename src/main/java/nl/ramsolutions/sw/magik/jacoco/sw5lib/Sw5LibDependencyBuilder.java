@@ -1,119 +1,106 @@
 package nl.ramsolutions.sw.magik.jacoco.sw5lib;
 
-import nl.ramsolutions.sw.magik.jacoco.helpers.ClassNodeHelper;
-import nl.ramsolutions.sw.magik.jacoco.helpers.MethodNodeHelper;
-import org.objectweb.asm.Opcodes;
-import org.objectweb.asm.Type;
-import org.objectweb.asm.tree.ClassNode;
-import org.objectweb.asm.tree.InsnList;
-import org.objectweb.asm.tree.LdcInsnNode;
-import org.objectweb.asm.tree.MethodNode;
-
 import javax.annotation.CheckForNull;
 
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Smallworld/Magik dependency builder.
+ *
+ * <p>
+ * Public, as the method dependencies are used when merging methods, both with and without a {@link Sw5LibAnalyzer}.
+ * </p>
  */
-final class Sw5LibDependencyBuilder {
+public final class Sw5LibDependencyBuilder {
 
-    private static final String PRELOAD_METHOD = "preload";
     private static final String EXECUTE_METHOD = "execute";
 
     private Sw5LibDependencyBuilder() {
     }
 
-    public static Map<ClassNode, ClassNode> buildClassDependencyMap(
-        final Collection<ClassNode> primaryClassNodes,
-        final Collection<ClassNode> subsidiaryClassNodes) {
-        return primaryClassNodes.stream()
-            .map(primaryClassNode -> {
-                final String subsidiaryClassName = Sw5LibDependencyBuilder.getSubsidiaryClassName(primaryClassNode);
-                final ClassNode subsidiaryClassNode = subsidiaryClassNodes.stream()
-                    .filter(classNode -> classNode.name.equals(subsidiaryClassName))
-                    .findAny()
-                    .orElse(null);
-                if (subsidiaryClassNode == null) {
-                    return null;
-                }
-
-                return Map.entry(primaryClassNode, subsidiaryClassNode);
-            })
-            .filter(Objects::nonNull)
+    /**
+     * Build dependency map with key as primary class and value as subsidiary class.
+     *
+     * <p>
+     * Subsidiary classes are indexed on name first, making this a single pass over both collections.
+     * </p>
+     * @param primaryClasses Primary classes.
+     * @param subsidiaryClasses Subsidiary classes.
+     * @return Map with class dependencies.
+     */
+    public static Map<Sw5ClassInfo, Sw5ClassInfo> buildClassDependencyMap(
+            final Collection<Sw5ClassInfo> primaryClasses,
+            final Collection<Sw5ClassInfo> subsidiaryClasses) {
+        final Map<String, Sw5ClassInfo> subsidiaryClassesByName = subsidiaryClasses.stream()
             .collect(Collectors.toMap(
-                Map.Entry::getKey,
-                Map.Entry::getValue));
-    }
-
-    private static String getSubsidiaryClassName(final ClassNode primaryClassNode) {
-        final MethodNode methodNode = ClassNodeHelper.getMethodNode(primaryClassNode, PRELOAD_METHOD);
-        final InsnList instructions = methodNode.instructions;
-        final LdcInsnNode ldcNode = Arrays.stream(instructions.toArray())
-            .filter(insn -> insn.getOpcode() == Opcodes.LDC)
-            .map(LdcInsnNode.class::cast)
-            .findFirst()
-            .orElse(null);
-        if (ldcNode == null) {
-            return null;
+                Sw5ClassInfo::getName,
+                Function.identity(),
+                (classInfo1, classInfo2) -> classInfo1));
+        final Map<Sw5ClassInfo, Sw5ClassInfo> dependencyMap = new HashMap<>();
+        for (final Sw5ClassInfo primaryClass : primaryClasses) {
+            final String subsidiaryClassName = primaryClass.getSubsidiaryClassName();
+            final Sw5ClassInfo subsidiaryClass = subsidiaryClassName != null
+                ? subsidiaryClassesByName.get(subsidiaryClassName)
+                : null;
+            if (subsidiaryClass != null) {
+                dependencyMap.put(primaryClass, subsidiaryClass);
+            }
         }
 
-        final Type cst = (Type) ldcNode.cst;
-        final String className = cst.getClassName();
-        return className.replace(".", "/");
+        return dependencyMap;
     }
 
     /**
-     * Build dependency map with key as child MethodNode and value as parent MethodNode.
+     * Build dependency map with key as child method and value as parent method.
      *
      * <p>Note that the defined methods are not added as a dependency of the {@code execute()} method.</p>
-     * @param providerClassNode Provider ClassNode, can both be primary and  subsidiary.
-     * @param supplierClassNode Supplier ClassNode, always the subsidiary if present.
+     * @param providerClass Provider class, can both be primary and  subsidiary.
+     * @param supplierClass Supplier class, always the subsidiary if present.
      * @return Map with method dependencies.
      */
-    public static Map<MethodNode, MethodNode> buildMethodDependencyMap(
-            final ClassNode providerClassNode,
-            @CheckForNull final ClassNode supplierClassNode) {
-        if (supplierClassNode == null) {
+    public static Map<Sw5MethodInfo, Sw5MethodInfo> buildMethodDependencyMap(
+            final Sw5ClassInfo providerClass,
+            @CheckForNull final Sw5ClassInfo supplierClass) {
+        if (supplierClass == null) {
             return Collections.emptyMap();
         }
 
-        final Map<MethodNode, MethodNode> dependencyMap = new HashMap<>();
+        final Map<Sw5MethodInfo, Sw5MethodInfo> dependencyMap = new HashMap<>();
 
         // Find all relations from subsidiary --> subsidiary.
-        final Map<MethodNode, MethodNode> subsidiaryDependencyMap = supplierClassNode.methods.stream()
-            .filter(MethodNodeHelper::hasParentAnnotation)
+        final Map<Sw5MethodInfo, Sw5MethodInfo> subsidiaryDependencyMap = supplierClass.getMethods().stream()
+            .filter(Sw5MethodInfo::hasParent)
             .collect(Collectors.toMap(
-                methodNode -> methodNode,
-                methodNode -> {
-                    final String wantedMethodName = MethodNodeHelper.getParentMethodName(methodNode);
-                    return ClassNodeHelper.getMethodNode(supplierClassNode, wantedMethodName);
+                methodInfo -> methodInfo,
+                methodInfo -> {
+                    final String wantedMethodName = Objects.requireNonNull(methodInfo.getParentMethodName());
+                    return supplierClass.getMethod(wantedMethodName);
                 }));
         dependencyMap.putAll(subsidiaryDependencyMap);
 
         // All other entries not from subsidiary --> subsidiary, must be from execute() method.
-        final MethodNode executeMethodNode = ClassNodeHelper.isPrimaryClassNode(providerClassNode)
-            ? ClassNodeHelper.getMethodNodeSafe(providerClassNode, EXECUTE_METHOD)
+        final Sw5MethodInfo executeMethod = providerClass.isPrimary()
+            ? providerClass.getMethodSafe(EXECUTE_METHOD)
             : null;
-        if (executeMethodNode != null) {
-            final String supplierClassNodeName = supplierClassNode.name.replace("/", ".");
-            final Map<String, String> methodNamesMap = Sw5LibMethodNameExtractor.extractMethodNames(executeMethodNode);
-            final Map<MethodNode, MethodNode> executableDependencyMap = supplierClassNode.methods.stream()
-                .filter(methodNode -> !subsidiaryDependencyMap.containsKey(methodNode))
-                .filter(methodNode -> {
+        if (executeMethod != null) {
+            final String supplierClassName = supplierClass.getName().replace("/", ".");
+            final Map<String, String> methodNamesMap = executeMethod.getMethodNames();
+            final Map<Sw5MethodInfo, Sw5MethodInfo> executableDependencyMap = supplierClass.getMethods().stream()
+                .filter(methodInfo -> !subsidiaryDependencyMap.containsKey(methodInfo))
+                .filter(methodInfo -> {
                     // Is not a defined method at subsidiary.
-                    final String key = supplierClassNodeName + "." + methodNode.name;
+                    final String key = supplierClassName + "." + methodInfo.getName();
                     return !methodNamesMap.containsKey(key);
                 })
                 .collect(Collectors.toMap(
-                    methodNode -> methodNode,
-                    methodNode -> executeMethodNode));
+                    methodInfo -> methodInfo,
+                    methodInfo -> executeMethod));
             dependencyMap.putAll(executableDependencyMap);
         }
 
@@ -0,0 +1,82 @@
+package nl.ramsolutions.sw.magik.jacoco.sw5lib;
+
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import javax.annotation.CheckForNull;
+
+import java.util.Map;
+
+/**
+ * Extracts defined Magik method names via INVOKESTATIC/createMethod() calls, and defined Magik proc names via
+ * INVOKEDYNAMIC proc calls, in a single forward pass.
+ *
+ * <p>
+ * The arguments of the createMethod() call are the last run of {@code LDC} instructions before the call. Any other
+ * instructions between those and the call (such as {@code ICONST}) are skipped over. Only the first
+ * {@value Sw5MethodNameCollector#LDC_EXPECTED_SIZE} values of a run are kept, such that no intermediate lists are
+ * created.
+ * </p>
+ */
+final class Sw5LibNameExtractor extends Sw5LdcRunVisitor {
+
+    private static final String METHOD_DEFINITION_OWNER = "com/gesmallworld/magik/language/utils/MagikObjectUtils";
+    private static final String METHOD_DEFINITION_NAME = "createMethod";
+    private static final String PROC_DEFINITION_OWNER = "com/gesmallworld/magik/language/invokers/ConstantBuilder";
+    private static final String PROC_DEFINITION_NAME = "proc";
+
+    private final Sw5MethodNameCollector methodNameCollector = new Sw5MethodNameCollector();
+    private final Sw5ProcNameCollector procNameCollector = new Sw5ProcNameCollector();
+
+    Sw5LibNameExtractor(@CheckForNull final MethodVisitor methodVisitor) {
+        super(Sw5MethodNameCollector.LDC_EXPECTED_SIZE, methodVisitor);
+    }
+
+    /**
+     * Get the extracted Magik method names.
+     * @return Map keyed on Java names, and the corresponding Magik names.
+     */
+    Map<String, String> getMethodNames() {
+        return this.methodNameCollector.getMethodNames();
+    }
+
+    /**
+     * Get the extracted Magik proc names.
+     * @return Map keyed on Java names, and the corresponding Magik names.
+     */
+    Map<String, String> getProcNames() {
+        return this.procNameCollector.getProcNames();
+    }
+
+    @Override
+    public void visitMethodInsn(
+            final int opcode,
+            final String owner,
+            final String name,
+            final String descriptor,
+            final boolean isInterface) {
+        if (opcode == Opcodes.INVOKESTATIC
+            && owner.equals(METHOD_DEFINITION_OWNER)
+            && name.equals(METHOD_DEFINITION_NAME)) {
+            this.methodNameCollector.collect(this);
+        }
+
+        super.visitMethodInsn(opcode, owner, name, descriptor, isInterface);
+    }
+
+    @Override
+    public void visitInvokeDynamicInsn(
+            final String name,
+            final String descriptor,
+            final Handle bootstrapMethodHandle,
+            final Object... bootstrapMethodArguments) {
+        if (bootstrapMethodHandle.getOwner().equals(PROC_DEFINITION_OWNER)
+            && name.equals(PROC_DEFINITION_NAME)) {
+            this.procNameCollector.collect(bootstrapMethodArguments);
+        }
+
+        super.visitInvokeDynamicInsn(name, descriptor, bootstrapMethodHandle, bootstrapMethodArguments);
+    }
+
+}
@@ -0,0 +1,100 @@
+package nl.ramsolutions.sw.magik.jacoco.sw5lib;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Java to Magik name mapping builder.
+ */
+final class Sw5LibNameMapBuilder {
+
+    private static final int RANK_METHOD_NAMES = 0;
+    private static final int RANK_PROC_NAMES = 1;
+    private static final int RANK_SUBSIDIARY_PROC_NAMES = 2;
+
+    private Sw5LibNameMapBuilder() {
+    }
+
+    /**
+     * Create a mapping from Java class/method names to Magik exemplar/method names.
+     *
+     * <p>
+     * The methods and procs defined by the {@code execute()} methods of the primary classes, and the procs defined by
+     * the subsidiary classes, are three mappings collected into one concurrent map, one mapping after the other, each
+     * in parallel. Every name is ranked by its mapping, a later mapping overriding an earlier one. A Java name
+     * occurring twice within one mapping is an error, even when mapped to the same Magik name. All duplicates are
+     * reported at once, in sorted order, regardless of the order of processing.
+     * </p>
+     * @param primaryClasses Primary classes.
+     * @param subsidiaryClasses Subsidiary classes.
+     * @param threads Number of threads to collect with.
+     * @return Mapping from Java class/method to ranked Magik exemplar/method names.
+     */
+    static Map<String, Sw5RankedName> buildMethodNameMap(
+            final Collection<Sw5ClassInfo> primaryClasses,
+            final Collection<Sw5ClassInfo> subsidiaryClasses,
+            final int threads) {
+        final ConcurrentMap<String, Sw5RankedName> nameMap = new ConcurrentHashMap<>();
+        final Set<String> duplicateKeys = ConcurrentHashMap.newKeySet();
+        final ForkJoinPool forkJoinPool = new ForkJoinPool(threads);
+        try {
+            // Parallel streams started from within the pool, run on the pool.
+            forkJoinPool.submit(() -> {
+                Sw5LibNameMapBuilder.collectNames(nameMap, duplicateKeys, RANK_METHOD_NAMES,
+                    primaryClasses.parallelStream()
+                        .map(Sw5ClassInfo::getExecuteMethod)
+                        .map(Sw5MethodInfo::getMethodNames));
+                Sw5LibNameMapBuilder.collectNames(nameMap, duplicateKeys, RANK_PROC_NAMES,
+                    primaryClasses.parallelStream()
+                        .map(Sw5ClassInfo::getExecuteMethod)
+                        .map(Sw5MethodInfo::getProcNames));
+                Sw5LibNameMapBuilder.collectNames(nameMap, duplicateKeys, RANK_SUBSIDIARY_PROC_NAMES,
+                    subsidiaryClasses.parallelStream()
+                        .flatMap(classInfo -> classInfo.getMethods().stream())
+                        .map(Sw5MethodInfo::getProcNames));
+            }).join();
+        } finally {
+            forkJoinPool.shutdown();
+        }
+
+        if (!duplicateKeys.isEmpty()) {
+            final String msg = "Duplicate Java names for: " + new TreeSet<>(duplicateKeys);
+            throw new IllegalStateException(msg);
+        }
+
+        return Collections.unmodifiableMap(nameMap);
+    }
+
+    /**
+     * Collect the names of a mapping, after all mappings of a lower rank have been collected.
+     * @param nameMap Map to collect into.
+     * @param duplicateKeys Set to collect the duplicate Java names of a mapping into.
+     * @param rank Rank of the mapping.
+     * @param mappings Mapping, as the mappings of the separate methods.
+     */
+    private static void collectNames(
+            final ConcurrentMap<String, Sw5RankedName> nameMap,
+            final Set<String> duplicateKeys,
+            final int rank,
+            final Stream<Map<String, String>> mappings) {
+        mappings
+            .flatMap(mapping -> mapping.entrySet().stream())
+            .forEach(entry -> nameMap.merge(
+                entry.getKey(),
+                new Sw5RankedName(rank, entry.getValue()),
+                (existing, added) -> {
+                    if (existing.getRank() == added.getRank()) {
+                        duplicateKeys.add(entry.getKey());
+                    }
+                    return existing.override(added);
+                }));
+    }
+
+}
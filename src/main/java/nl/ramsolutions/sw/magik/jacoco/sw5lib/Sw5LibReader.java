@@ -1,47 +1,96 @@
 package nl.ramsolutions.sw.magik.jacoco.sw5lib;
 
-import nl.ramsolutions.sw.magik.jacoco.helpers.ClassNodeHelper;
-import org.objectweb.asm.ClassReader;
-import org.objectweb.asm.Opcodes;
-import org.objectweb.asm.tree.ClassNode;
-
 import javax.annotation.CheckForNull;
 
-import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BiPredicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 
 /**
  * Magik lib reader.
+ *
+ * <p>
+ * Only a {@link Sw5ClassInfo} is kept for each class, the bytecode itself is dropped after reading. All classes are
+ * classified once, directly after reading.
+ * </p>
+ *
+ * <p>
+ * Jars are read concurrently, but the resulting classes are combined in the order the jars were found. The result is
+ * thus the same, regardless of the number of threads used.
+ * </p>
+ *
+ * <p>
+ * The options below are given by {@link Sw5LibReaderOptions}.
+ * </p>
+ *
+ * <p>
+ * Optionally, a cache directory can be given. The classes read from each jar are then stored in this directory, and
+ * reused by later runs for as long as the jar is unchanged. This saves extracting the classes, but a
+ * {@link Sw5LibBytecodeConsumer} still receives the bytecode of all kept classes, read from the jar.
+ * </p>
+ *
+ * <p>
+ * Optionally, the names of the touched classes, i.e., the classes which have execution data, can be given. Only these
+ * classes and their primary/subsidiary partners are then kept, and read if possible.
+ * </p>
+ *
+ * <p>
+ * Optionally, a {@link Sw5LibBytecodeConsumer} can be given, which receives the bytecode of all kept classes. This way,
+ * the JaCoCo analysis can be done in the same pass over the libs. Each lib is flushed in order of discovery as well.
+ * </p>
+ *
+ * <p>
+ * Optionally, only the classes of Magik packages are read. The entries of other packages are then never inflated.
+ * </p>
  */
 public class Sw5LibReader {
 
     private static final String DIRECTORY_LIBS = "libs";
 
-    private final Map<String, ClassNode> namedClasses = new HashMap<>();
+    private final Map<String, Sw5ClassInfo> namedClasses = new HashMap<>();
     private final List<Path> productPaths;
+    private final int threads;
+    private final Sw5LibArchiveLoader archiveLoader;
+    private final Sw5LibClassIndex classIndex;
 
     /**
      * Constructor.
      * @param productPaths Product directories.
      */
     public Sw5LibReader(final List<Path> productPaths) throws IOException {
+        this(productPaths, new Sw5LibReaderOptions());
+    }
+
+    /**
+     * Constructor.
+     * @param productPaths Product directories.
+     * @param options Options to read the libs with.
+     */
+    public Sw5LibReader(final List<Path> productPaths, final Sw5LibReaderOptions options) throws IOException {
         this.productPaths = List.copyOf(productPaths);
+        this.threads = options.getThreads();
+        this.archiveLoader = new Sw5LibArchiveLoader(
+            options.getCachePath(),
+            options.getTouchedClassNames(),
+            options.getBytecodeConsumer(),
+            options.isMagikOnly());
         this.readProductLibs();
+        this.classIndex = new Sw5LibClassIndex(this.namedClasses.values());
     }
 
     public List<Path> getProductPaths() {
@@ -50,88 +99,93 @@ public class Sw5LibReader {
 
     /**
      * Get primary Magik classes, i.e., source files without method definitions.
-     * @return Primary {@link ClassNode}s.
+     * @return Primary {@link Sw5ClassInfo}s.
      */
-    public Collection<ClassNode> getPrimaryClassNodes() {
-        return this.namedClasses.values().stream()
-            .filter(ClassNodeHelper::isPrimaryClassNode)
-            .collect(Collectors.toSet());
+    public Collection<Sw5ClassInfo> getPrimaryClasses() {
+        return this.classIndex.getPrimaryClasses();
     }
 
     /**
-     * Get all Subsidiary {@link ClassNode}s.
-     * @return Subsidiary {@link ClassNode}s.
+     * Get all Subsidiary {@link Sw5ClassInfo}s.
+     * @return Subsidiary {@link Sw5ClassInfo}s.
      */
-    public Collection<ClassNode> getSubsidiaryClassNodes() {
-        return this.namedClasses.values().stream()
-            .filter(ClassNodeHelper::isSubsidiaryClassNode)
-            .collect(Collectors.toSet());
+    public Collection<Sw5ClassInfo> getSubsidiaryClasses() {
+        return this.classIndex.getSubsidiaryClasses();
     }
 
     /**
-     * Get a {@link ClassNode} by its name.
-     * @param className {@link ClassNode} name.
-     * @return {@link ClassNode}, if found.
+     * Get all regular, i.e., neither primary nor subsidiary, {@link Sw5ClassInfo}s.
+     * @return Regular {@link Sw5ClassInfo}s.
+     */
+    public Collection<Sw5ClassInfo> getRegularClasses() {
+        return this.classIndex.getRegularClasses();
+    }
+
+    /**
+     * Get the primary/subsidiary class mapping.
+     * @return Mapping keyed on primary class, valued on subsidiary class.
+     */
+    public Map<Sw5ClassInfo, Sw5ClassInfo> getClassDependencyMap() {
+        return this.classIndex.getClassDependencyMap();
+    }
+
+    /**
+     * Get a {@link Sw5ClassInfo} by its name.
+     * @param className {@link Sw5ClassInfo} name.
+     * @return {@link Sw5ClassInfo}, if found.
      */
     @CheckForNull
-    public ClassNode getClassByName(final String className) {
+    public Sw5ClassInfo getClassByName(final String className) {
         return this.namedClasses.get(className);
     }
 
     private void readProductLibs() throws IOException {
+        final List<Path> libPaths = this.findProductLibs();
+        final ExecutorService executorService = Executors.newFixedThreadPool(this.threads);
+        try {
+            final List<Future<Map<String, Sw5ClassInfo>>> futures = new ArrayList<>();
+            for (final Path libPath : libPaths) {
+                futures.add(executorService.submit(() -> this.archiveLoader.load(libPath)));
+            }
+
+            // Combine in order of discovery, to be independent of the order in which the jars were read.
+            for (int i = 0; i < libPaths.size(); ++i) {
+                this.archiveLoader.flush(libPaths.get(i));
+                this.namedClasses.putAll(Sw5LibReader.getResult(futures.get(i)));
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private List<Path> findProductLibs() throws IOException {
         final BiPredicate<Path, BasicFileAttributes> pred = (path, basicFileAttributes) -> {
             final String filename = path.getFileName().toString();
             return filename.toLowerCase().endsWith(".jar");
         };
+        final List<Path> libPaths = new ArrayList<>();
         for (final Path productDir : this.productPaths) {
             final Path libsDir = productDir.resolve(DIRECTORY_LIBS);
-            final Stream<Path> libPaths = Files.find(libsDir, Integer.MAX_VALUE, pred);
-            libPaths.forEach(this::readNamedClassesSafe);
-            libPaths.close();
+            try (Stream<Path> productLibPaths = Files.find(libsDir, Integer.MAX_VALUE, pred)) {
+                libPaths.addAll(productLibPaths.collect(Collectors.toList()));
+            }
         }
+        return libPaths;
     }
 
-    private void readNamedClassesSafe(final Path archive) {
+    private static <T> T getResult(final Future<T> future) throws IOException {
         try {
-            this.readNamedClasses(archive);
-        } catch (final IOException exception) {
-            throw new IllegalStateException(exception);
-        }
-    }
-
-    private void readNamedClasses(final Path archive) throws IOException {
-        final File file = archive.toFile();
-        try (ZipFile zipFile = new ZipFile(file)) {
-            final Enumeration<? extends ZipEntry> entries = zipFile.entries();
-            while (entries.hasMoreElements()) {
-                final ZipEntry entry = entries.nextElement();
-                final String name = entry.getName();
-                if (!name.startsWith("magik/")
-                    && !name.endsWith(".class")) {
-                    continue;
-                }
-
-                final int size = (int) entry.getSize();
-                final byte[] buffer = new byte[size];
-                try (InputStream inputStream = zipFile.getInputStream(entry)) {
-                    // Get bytecode.
-                    int start = 0;
-                    int read = 0;
-                    while (size - start != 0) {
-                        final int left = size - start;
-                        read = inputStream.read(buffer, start, left);
-                        start += read;
-                    }
-
-                    // Read class.
-                    final ClassReader classReader = new ClassReader(buffer);
-                    final ClassNode classNode = new ClassNode(Opcodes.ASM8);
-                    classReader.accept(classNode, 0);
-
-                    // Store it.
-                    this.namedClasses.put(name, classNode);
-                }
+            return future.get();
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading libs");
+        } catch (final ExecutionException exception) {
+            final Throwable cause = exception.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
             }
+
+            throw new IllegalStateException(cause);
         }
     }
 
@@ -0,0 +1,91 @@
+package nl.ramsolutions.sw.magik.jacoco.sw5lib;
+
+import javax.annotation.CheckForNull;
+
+import java.nio.file.Path;
+import java.util.Collection;
+
+/**
+ * Options for reading libs with a {@link Sw5LibReader}.
+ *
+ * <p>
+ * By default, all classes are read, with as many threads as there are available processors, without a cache and
+ * without a {@link Sw5LibBytecodeConsumer}.
+ * </p>
+ */
+public final class Sw5LibReaderOptions {
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private Path cachePath;
+    private Collection<String> touchedClassNames;
+    private Sw5LibBytecodeConsumer bytecodeConsumer;
+    private boolean magikOnly;
+
+    public int getThreads() {
+        return this.threads;
+    }
+
+    /**
+     * Set the number of threads to read jars with.
+     * @param threads Number of threads.
+     */
+    public void setThreads(final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be at least 1");
+        }
+
+        this.threads = threads;
+    }
+
+    @CheckForNull
+    public Path getCachePath() {
+        return this.cachePath;
+    }
+
+    /**
+     * Set the directory to cache the classes read from jars in.
+     * @param cachePath Cache directory, or null to disable caching.
+     */
+    public void setCachePath(@CheckForNull final Path cachePath) {
+        this.cachePath = cachePath;
+    }
+
+    @CheckForNull
+    public Collection<String> getTouchedClassNames() {
+        return this.touchedClassNames;
+    }
+
+    /**
+     * Set the touched classes to keep, together with their primary/subsidiary partners.
+     * @param touchedClassNames Internal names of the touched classes, or null to keep all classes.
+     */
+    public void setTouchedClassNames(@CheckForNull final Collection<String> touchedClassNames) {
+        this.touchedClassNames = touchedClassNames;
+    }
+
+    @CheckForNull
+    public Sw5LibBytecodeConsumer getBytecodeConsumer() {
+        return this.bytecodeConsumer;
+    }
+
+    /**
+     * Set the consumer of the bytecode of the kept classes. Called concurrently.
+     * @param bytecodeConsumer Consumer of the bytecode, or null for none.
+     */
+    public void setBytecodeConsumer(@CheckForNull final Sw5LibBytecodeConsumer bytecodeConsumer) {
+        this.bytecodeConsumer = bytecodeConsumer;
+    }
+
+    public boolean isMagikOnly() {
+        return this.magikOnly;
+    }
+
+    /**
+     * Set to only read the classes of Magik packages, other classes are never inflated.
+     * @param magikOnly Only read Magik classes.
+     */
+    public void setMagikOnly(final boolean magikOnly) {
+        this.magikOnly = magikOnly;
+    }
+
+}
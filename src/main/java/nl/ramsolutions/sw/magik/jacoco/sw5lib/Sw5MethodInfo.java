@@ -0,0 +1,77 @@
+package nl.ramsolutions.sw.magik.jacoco.sw5lib;
+
+import javax.annotation.CheckForNull;
+
+import java.util.Map;
+
+/**
+ * Smallworld/Magik method, as read from a lib.
+ */
+public final class Sw5MethodInfo {
+
+    private final String name;
+    private final boolean topLevel;
+    private final String parentMethodName;
+    private final Map<String, String> methodNames;
+    private final Map<String, String> procNames;
+
+    /**
+     * Constructor.
+     * @param name Name of the method.
+     * @param topLevel Method is annotated with {@code @CodeType("TopLevel")}.
+     * @param parentMethodName Parent method from the {@code @Parent} annotation, if any.
+     * @param methodNames Magik methods defined by this method, keyed on Java name.
+     * @param procNames Magik procs defined by this method, keyed on Java name.
+     */
+    public Sw5MethodInfo(
+            final String name,
+            final boolean topLevel,
+            @CheckForNull final String parentMethodName,
+            final Map<String, String> methodNames,
+            final Map<String, String> procNames) {
+        this.name = name;
+        this.topLevel = topLevel;
+        this.parentMethodName = parentMethodName;
+        this.methodNames = Map.copyOf(methodNames);
+        this.procNames = Map.copyOf(procNames);
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public boolean isTopLevel() {
+        return this.topLevel;
+    }
+
+    public boolean hasParent() {
+        return this.parentMethodName != null;
+    }
+
+    @CheckForNull
+    public String getParentMethodName() {
+        return this.parentMethodName;
+    }
+
+    /**
+     * Get the Magik methods defined by this method, via {@code MagikObjectUtils.createMethod()}.
+     * @return Map keyed on Java names, and the corresponding Magik names.
+     */
+    public Map<String, String> getMethodNames() {
+        return this.methodNames;
+    }
+
+    /**
+     * Get the Magik procs defined by this method, via {@code ConstantBuilder.proc}.
+     * @return Map keyed on Java names, and the corresponding Magik names.
+     */
+    public Map<String, String> getProcNames() {
+        return this.procNames;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s(%s)", this.getClass().getSimpleName(), this.name);
+    }
+
+}
@@ -0,0 +1,88 @@
+package nl.ramsolutions.sw.magik.jacoco.sw5lib;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import javax.annotation.CheckForNull;
+
+/**
+ * Extracts a {@link Sw5MethodInfo} from a method.
+ */
+final class Sw5MethodInfoExtractor extends MethodVisitor {
+
+    private static final String ANNOTATION_CODE_TYPE = "Lcom/gesmallworld/magik/commons/runtime/annotations/CodeType;";
+    private static final String ANNOTATION_CODE_TYPE_VALUE = "value";
+    private static final String ANNOTATION_CODE_TYPE_TOP_LEVEL = "TopLevel";
+    private static final String ANNOTATION_PARENT = "Lcom/gesmallworld/magik/commons/runtime/annotations/Parent;";
+    private static final String ANNOTATION_PARENT_VALUE_METHOD = "method";
+
+    private final String name;
+    private final Sw5LibNameExtractor nameExtractor;
+    private boolean topLevel;
+    private String parentMethodName;
+    private Object firstLdcValue;
+
+    Sw5MethodInfoExtractor(final String name) {
+        this(name, new Sw5LibNameExtractor(null));
+    }
+
+    private Sw5MethodInfoExtractor(final String name, final Sw5LibNameExtractor nameExtractor) {
+        super(Opcodes.ASM9, nameExtractor);
+        this.name = name;
+        this.nameExtractor = nameExtractor;
+    }
+
+    String getName() {
+        return this.name;
+    }
+
+    /**
+     * Get the value of the first {@code LDC} instruction of the method.
+     * @return Value of the first {@code LDC} instruction, if any.
+     */
+    @CheckForNull
+    Object getFirstLdcValue() {
+        return this.firstLdcValue;
+    }
+
+    Sw5MethodInfo getMethodInfo() {
+        return new Sw5MethodInfo(
+            this.name,
+            this.topLevel,
+            this.parentMethodName,
+            this.nameExtractor.getMethodNames(),
+            this.nameExtractor.getProcNames());
+    }
+
+    @Override
+    public AnnotationVisitor visitAnnotation(final String descriptor, final boolean visible) {
+        if (visible && descriptor.equals(ANNOTATION_CODE_TYPE)) {
+            return new Sw5AnnotationValueExtractor(this::visitCodeTypeValue);
+        } else if (visible && descriptor.equals(ANNOTATION_PARENT)) {
+            return new Sw5AnnotationValueExtractor(this::visitParentValue);
+        }
+
+        return super.visitAnnotation(descriptor, visible);
+    }
+
+    private void visitCodeTypeValue(final String valueName, final Object value) {
+        this.topLevel = ANNOTATION_CODE_TYPE_VALUE.equals(valueName) && ANNOTATION_CODE_TYPE_TOP_LEVEL.equals(value);
+    }
+
+    private void visitParentValue(final String valueName, final Object value) {
+        if (ANNOTATION_PARENT_VALUE_METHOD.equals(valueName)) {
+            this.parentMethodName = (String) value;
+        }
+    }
+
+    @Override
+    public void visitLdcInsn(final Object value) {
+        if (this.firstLdcValue == null) {
+            this.firstLdcValue = value;
+        }
+
+        super.visitLdcInsn(value);
+    }
+
+}
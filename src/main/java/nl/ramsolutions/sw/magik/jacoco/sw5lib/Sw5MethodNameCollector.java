@@ -0,0 +1,64 @@
+package nl.ramsolutions.sw.magik.jacoco.sw5lib;
+
+import org.objectweb.asm.Type;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Collects defined Magik method names, from the {@code LDC} arguments of MagikObjectUtils.createMethod() calls.
+ */
+final class Sw5MethodNameCollector {
+
+    static final int LDC_EXPECTED_SIZE = 4;
+    private static final int LDC_INDEX_MAGIK_EXEMPLAR = 0;
+    private static final int LDC_INDEX_MAGIK_METHOD = 1;
+    private static final int LDC_INDEX_JAVA_TYPE = 2;
+    private static final int LDC_INDEX_JAVA_METHOD_NAME = 3;
+
+    private final Map<String, String> methodNames = new HashMap<>();
+
+    /**
+     * Get the collected Magik method names.
+     * @return Map keyed on Java names, and the corresponding Magik names.
+     */
+    Map<String, String> getMethodNames() {
+        return Collections.unmodifiableMap(this.methodNames);
+    }
+
+    /**
+     * Collect the exemplar/method name from the {@code LDC} values before a createMethod() call.
+     * @param ldcRun {@code LDC} run before the call.
+     */
+    void collect(final Sw5LdcRunVisitor ldcRun) {
+        if (ldcRun.getLdcCount() != LDC_EXPECTED_SIZE) {
+            throw new IllegalStateException("Expected " + LDC_EXPECTED_SIZE + " LDC values before createMethod()");
+        }
+
+        // Extract createMethod arguments.
+        final String magikExemplar = (String) ldcRun.getLdcValue(LDC_INDEX_MAGIK_EXEMPLAR);
+        final String magikMethod = (String) ldcRun.getLdcValue(LDC_INDEX_MAGIK_METHOD);
+        final Type javaType = (Type) ldcRun.getLdcValue(LDC_INDEX_JAVA_TYPE);
+        final String javaMethodName = (String) ldcRun.getLdcValue(LDC_INDEX_JAVA_METHOD_NAME);
+
+        // Build key + full magik method name.
+        final String javaTypeName = javaType.getClassName();
+        final String key = Sw5LibAnalyzer.keyForClassMethodName(javaTypeName, javaMethodName);
+        final String fullMagikMethod = Sw5MethodNameCollector.fullMagikMethodName(magikExemplar, magikMethod);
+        final String previousName = this.methodNames.putIfAbsent(key, fullMagikMethod);
+        if (previousName != null) {
+            final String msg = "Duplicate Java name: " + key + " (" + previousName + " and " + fullMagikMethod + ")";
+            throw new IllegalStateException(msg);
+        }
+    }
+
+    private static String fullMagikMethodName(final String exemplarName, final String methodName) {
+        if (methodName.startsWith("[")) {
+            return String.format("%s%s", exemplarName, methodName);
+        }
+
+        return String.format("%s.%s", exemplarName, methodName);
+    }
+
+}
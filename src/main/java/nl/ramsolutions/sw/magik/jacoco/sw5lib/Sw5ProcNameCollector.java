@@ -0,0 +1,55 @@
+package nl.ramsolutions.sw.magik.jacoco.sw5lib;
+
+import org.objectweb.asm.Type;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Collects defined Magik proc names, from the bootstrap method arguments of INVOKEDYNAMIC proc calls.
+ */
+final class Sw5ProcNameCollector {
+
+    private static final int BSM_INDEX_JAVA_TYPE = 0;
+    private static final int BSM_INDEX_JAVA_METHOD_NAME = 1;
+    private static final int BSM_INDEX_PROC_NAME = 2;
+    private static final String ANONYMOUS_PROC = "__anonymous_proc__";
+
+    private final Map<String, String> procNames = new HashMap<>();
+
+    /**
+     * Get the collected Magik proc names.
+     * @return Map keyed on Java names, and the corresponding Magik names.
+     */
+    Map<String, String> getProcNames() {
+        return Collections.unmodifiableMap(this.procNames);
+    }
+
+    /**
+     * Collect the proc name from the bootstrap method arguments of a INVOKEDYNAMIC proc call.
+     * @param bootstrapMethodArguments Bootstrap method arguments to collect from.
+     */
+    void collect(final Object... bootstrapMethodArguments) {
+        final Type javaType = (Type) bootstrapMethodArguments[BSM_INDEX_JAVA_TYPE];
+        final String javaTypeName = javaType.getClassName();
+        final String javaMethodName = (String) bootstrapMethodArguments[BSM_INDEX_JAVA_METHOD_NAME];
+        final String procName = (String) bootstrapMethodArguments[BSM_INDEX_PROC_NAME];
+
+        final String key = Sw5LibAnalyzer.keyForClassMethodName(javaTypeName, javaMethodName);
+        final String magikProcName = Sw5ProcNameCollector.magikProcName(procName);
+        final String previousName = this.procNames.putIfAbsent(key, magikProcName);
+        if (previousName != null) {
+            final String msg = "Duplicate Java name: " + key + " (" + previousName + " and " + magikProcName + ")";
+            throw new IllegalStateException(msg);
+        }
+    }
+
+    private static String magikProcName(final String procName) {
+        final String fixedName = procName.isBlank()
+            ? ANONYMOUS_PROC
+            : procName;
+        return "@" + fixedName;
+    }
+
+}
@@ -0,0 +1,44 @@
+package nl.ramsolutions.sw.magik.jacoco.sw5lib;
+
+/**
+ * Magik name, ranked by the mapping it was collected from.
+ *
+ * <p>
+ * A name from a later mapping has a higher rank and overrides a name from an earlier mapping.
+ * </p>
+ */
+final class Sw5RankedName {
+
+    private final int rank;
+    private final String name;
+
+    /**
+     * Constructor.
+     * @param rank Rank of the mapping the name was collected from.
+     * @param name Magik name.
+     */
+    Sw5RankedName(final int rank, final String name) {
+        this.rank = rank;
+        this.name = name;
+    }
+
+    int getRank() {
+        return this.rank;
+    }
+
+    String getName() {
+        return this.name;
+    }
+
+    /**
+     * Get the overriding name of this and another name.
+     * @param other Other name.
+     * @return Name of highest rank, this name if of the same rank.
+     */
+    Sw5RankedName override(final Sw5RankedName other) {
+        return other.rank > this.rank
+            ? other
+            : this;
+    }
+
+}
@@ -0,0 +1,110 @@
+package nl.ramsolutions.sw.magik.jacoco.sw5lib;
+
+import javax.annotation.CheckForNull;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Selects the classes touched by execution data, together with their primary/subsidiary partners.
+ *
+ * <p>
+ * A primary class and its subsidiary class are always selected together, as they are merged into one.
+ * </p>
+ */
+final class Sw5TouchedClassSelector {
+
+    private static final String CLASS_EXTENSION = ".class";
+
+    private Sw5TouchedClassSelector() {
+    }
+
+    /**
+     * Get the entry names of touched classes.
+     * @param touchedClassNames Internal names of touched classes, if any.
+     * @return Entry names of touched classes, or null if none given.
+     */
+    @CheckForNull
+    static Set<String> toEntryNames(@CheckForNull final Collection<String> touchedClassNames) {
+        if (touchedClassNames == null) {
+            return null;
+        }
+
+        return touchedClassNames.stream()
+            .map(className -> className + CLASS_EXTENSION)
+            .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Get the entry name of the subsidiary class of a primary class.
+     * @param classInfo Class to get the subsidiary entry name for.
+     * @return Entry name of the subsidiary class, or null if none.
+     */
+    @CheckForNull
+    static String partnerEntryName(final Sw5ClassInfo classInfo) {
+        final String subsidiaryClassName = classInfo.getSubsidiaryClassName();
+        if (subsidiaryClassName == null) {
+            return null;
+        }
+
+        return subsidiaryClassName + CLASS_EXTENSION;
+    }
+
+    /**
+     * Get the package of an entry.
+     * @param entryName Name of entry.
+     * @return Package of entry, including trailing {@code /}.
+     */
+    static String packageOf(final String entryName) {
+        return entryName.substring(0, entryName.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * Get the packages of subsidiary classes, for which no primary class is known.
+     * @param namedClasses Classes, keyed on entry name.
+     * @return Packages of orphaned subsidiary classes.
+     */
+    static Set<String> orphanPackages(final Map<String, Sw5ClassInfo> namedClasses) {
+        final Set<String> linkedEntryNames = namedClasses.values().stream()
+            .map(Sw5TouchedClassSelector::partnerEntryName)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        return namedClasses.entrySet().stream()
+            .filter(entry -> entry.getValue().isSubsidiary())
+            .map(Map.Entry::getKey)
+            .filter(entryName -> !linkedEntryNames.contains(entryName))
+            .map(Sw5TouchedClassSelector::packageOf)
+            .collect(Collectors.toSet());
+    }
+
+    /**
+     * Select the touched classes and their partners.
+     * @param namedClasses Classes, keyed on entry name.
+     * @param touchedEntryNames Entry names of touched classes.
+     * @return Selected classes, keyed on entry name.
+     */
+    static Map<String, Sw5ClassInfo> select(
+            final Map<String, Sw5ClassInfo> namedClasses,
+            final Set<String> touchedEntryNames) {
+        final Set<String> selected = new HashSet<>();
+        for (final Map.Entry<String, Sw5ClassInfo> entry : namedClasses.entrySet()) {
+            final String entryName = entry.getKey();
+            final String partnerEntryName = Objects.requireNonNullElse(
+                Sw5TouchedClassSelector.partnerEntryName(entry.getValue()),
+                entryName);
+            if (touchedEntryNames.contains(entryName) || touchedEntryNames.contains(partnerEntryName)) {
+                selected.add(entryName);
+                selected.add(partnerEntryName);
+            }
+        }
+
+        return namedClasses.entrySet().stream()
+            .filter(entry -> selected.contains(entry.getKey()))
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+}
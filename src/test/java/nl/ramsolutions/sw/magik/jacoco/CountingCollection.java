@@ -0,0 +1,61 @@
+package nl.ramsolutions.sw.magik.jacoco;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Read-only view on a collection, counting the elements visited.
+ *
+ * <p>
+ * Used to check the number of operations of an algorithm, instead of its timing.
+ * </p>
+ * @param <E> Type of elements.
+ */
+public final class CountingCollection<E> extends AbstractCollection<E> {
+
+    private final Collection<E> collection;
+    private long visits;
+
+    /**
+     * Constructor.
+     * @param collection Collection to view.
+     */
+    public CountingCollection(final Collection<E> collection) {
+        this.collection = collection;
+    }
+
+    /**
+     * Get the number of elements visited, over all iterations.
+     * @return Number of elements visited.
+     */
+    public long getVisits() {
+        return this.visits;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        final Iterator<E> iterator = this.collection.iterator();
+        return new Iterator<>() {
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public E next() {
+                final E element = iterator.next();
+                CountingCollection.this.visits++;
+                return element;
+            }
+
+        };
+    }
+
+    @Override
+    public int size() {
+        return this.collection.size();
+    }
+
+}
@@ -0,0 +1,95 @@
+package nl.ramsolutions.sw.magik.jacoco.conversion;
+
+import nl.ramsolutions.sw.magik.jacoco.CountingCollection;
+import nl.ramsolutions.sw.magik.jacoco.TestData;
+import org.jacoco.core.analysis.IBundleCoverage;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.IPackageCoverage;
+import org.jacoco.core.internal.analysis.ClassCoverageImpl;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for ClassCoverageIndex.
+ */
+class ClassCoverageIndexTest {
+
+    private static final int SYNTHETIC_CLASS_COUNT = 1_000;
+    private static final int SCALING_CLASS_COUNT = 50_000;
+
+    /**
+     * Create a synthetic package, with as many primary as subsidiary classes.
+     * @param classCount Total number of classes.
+     * @return Class coverages.
+     */
+    private static List<IClassCoverage> createSyntheticClassCoverages(final int classCount) {
+        final List<IClassCoverage> classCoverages = new ArrayList<>();
+        for (int i = 0; i < classCount; ++i) {
+            final String className = "magik/synthetic_product/synthetic_module/class_" + i;
+            classCoverages.add(new ClassCoverageImpl(className, i, false));
+        }
+        return classCoverages;
+    }
+
+    /**
+     * Count the classes visited while indexing a synthetic package and looking up the subsidiary classes.
+     * @param classCount Total number of classes.
+     * @return Number of classes visited.
+     */
+    private static long countSubsidiaryLookupVisits(final int classCount) {
+        final CountingCollection<IClassCoverage> classCoverages =
+            new CountingCollection<>(ClassCoverageIndexTest.createSyntheticClassCoverages(classCount));
+        final ClassCoverageIndex classCoverageIndex = new ClassCoverageIndex(classCoverages);
+        for (int i = 0; i < classCount; i += 2) {
+            final String subsidiaryClassName = "magik/synthetic_product/synthetic_module/class_" + (i + 1);
+            assertThat(classCoverageIndex.getClassCoverage(subsidiaryClassName)).isNotNull();
+        }
+        return classCoverages.getVisits();
+    }
+
+    @Test
+    void testGetClassCoverage() throws IOException {
+        final IBundleCoverage bundleCoverage = TestData.getBundleCoverage();
+        final IPackageCoverage packageCoverage = List.copyOf(bundleCoverage.getPackages()).get(0);
+        final ClassCoverageIndex classCoverageIndex = new ClassCoverageIndex(packageCoverage.getClasses());
+
+        final IClassCoverage classCoverage =
+            classCoverageIndex.getClassCoverage(TestData.SUBSIDIARY_CLASS_CHAR16_VECTOR);
+        assertThat(classCoverage).isNotNull();
+        assertThat(classCoverage.getName()).isEqualTo(TestData.SUBSIDIARY_CLASS_CHAR16_VECTOR);
+        assertThat(classCoverageIndex.getClassCoverage("magik/does_not_exist")).isNull();
+    }
+
+    @Test
+    void testGetClassCoverageSynthetic() {
+        final List<IClassCoverage> classCoverages =
+            ClassCoverageIndexTest.createSyntheticClassCoverages(SYNTHETIC_CLASS_COUNT);
+        final ClassCoverageIndex classCoverageIndex = new ClassCoverageIndex(classCoverages);
+
+        for (final IClassCoverage classCoverage : classCoverages) {
+            assertThat(classCoverageIndex.getClassCoverage(classCoverage.getName())).isSameAs(classCoverage);
+        }
+    }
+
+    /**
+     * Looking up the subsidiary classes in a synthetic 50k-class package is linear.
+     *
+     * <p>
+     * Each class is visited once, when indexing, so doubling the number of classes doubles the number of visits, where
+     * scanning the classes of the package for each lookup would quadruple it.
+     * </p>
+     */
+    @Test
+    void testSubsidiaryLookupsAreLinear() {
+        final long visitsHalf = ClassCoverageIndexTest.countSubsidiaryLookupVisits(SCALING_CLASS_COUNT / 2);
+        final long visitsFull = ClassCoverageIndexTest.countSubsidiaryLookupVisits(SCALING_CLASS_COUNT);
+        assertThat(visitsHalf).isEqualTo(SCALING_CLASS_COUNT / 2);
+        assertThat(visitsFull).isEqualTo(2 * visitsHalf);
+    }
+
+}
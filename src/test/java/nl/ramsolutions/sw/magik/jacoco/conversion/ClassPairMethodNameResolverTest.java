@@ -0,0 +1,39 @@
+package nl.ramsolutions.sw.magik.jacoco.conversion;
+
+import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5ClassInfo;
+import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5MethodInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for ClassPairMethodNameResolver.
+ */
+class ClassPairMethodNameResolverTest {
+
+    @Test
+    void testLaterMappingOverrides() {
+        final Sw5MethodInfo executeMethod = new Sw5MethodInfo(
+            "execute",
+            true,
+            null,
+            Map.of("a.b", "x.y()", "a.c", "x.z()", "a.d", "x.q()"),
+            Map.of("a.c", "@p", "a.d", "@q"));
+        final Sw5ClassInfo primaryClass = new Sw5ClassInfo("magik/a_1", "Primary", "magik/a_2", List.of(executeMethod));
+        final Sw5MethodInfo procMethod = new Sw5MethodInfo("m", false, null, Map.of(), Map.of("a.d", "@r"));
+        final Sw5ClassInfo subsidiaryClass = new Sw5ClassInfo("magik/a_2", "Subsidiary", null, List.of(procMethod));
+
+        // Same precedence as the Java to Magik name mapping of the whole product.
+        final ClassPairMethodNameResolver resolver = new ClassPairMethodNameResolver(primaryClass, subsidiaryClass);
+        assertThat(resolver.apply("a", "b")).isEqualTo("x.y()");
+        assertThat(resolver.apply("a", "c")).isEqualTo("@p");
+        assertThat(resolver.apply("a", "d")).isEqualTo("@r");
+        assertThatThrownBy(() -> resolver.apply("a", "e"))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+}
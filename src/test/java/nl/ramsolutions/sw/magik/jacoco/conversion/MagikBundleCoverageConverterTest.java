@@ -4,12 +4,18 @@ import nl.ramsolutions.sw.magik.jacoco.TestData;
 import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5LibAnalyzer;
 import org.jacoco.core.analysis.IBundleCoverage;
 import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICoverageNode;
+import org.jacoco.core.analysis.ILine;
 import org.jacoco.core.analysis.IMethodCoverage;
 import org.jacoco.core.analysis.IPackageCoverage;
+import org.jacoco.core.analysis.ISourceFileCoverage;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -87,4 +93,204 @@ class MagikBundleCoverageConverterTest {
         assertThat(packageCoverage0.getClasses()).hasSize(3);  // 3 classes, classes are merged.
     }
 
+    @Test
+    void testDiscardExecutableSourceFileLines() throws IOException {
+        final Sw5LibAnalyzer libAnalyzer = TestData.getLibAnalyzer();
+        final IBundleCoverage bundleCoverageOrig = TestData.getBundleCoverage();
+        final MagikBundleCoverageConverter converter =
+            new MagikBundleCoverageConverter(libAnalyzer, bundleCoverageOrig, true, false);
+
+        final IBundleCoverage bundleCoverage = converter.convert();
+
+        // Lines of each source file are those of the related (merged) class.
+        final IPackageCoverage packageCoverage0 = List.copyOf(bundleCoverage.getPackages()).get(0);
+        final ClassCoverageIndex classCoverageIndex = new ClassCoverageIndex(packageCoverage0.getClasses());
+        assertThat(packageCoverage0.getSourceFiles()).isNotEmpty();
+        for (final ISourceFileCoverage sourceFileCoverage : packageCoverage0.getSourceFiles()) {
+            final IClassCoverage classCoverage =
+                classCoverageIndex.getClassCoverageBySourceFileName(sourceFileCoverage.getName());
+            assertThat(classCoverage).isNotNull();
+            assertThat(sourceFileCoverage.getLineCounter().getTotalCount())
+                .isEqualTo(classCoverage.getLineCounter().getTotalCount());
+            assertThat(sourceFileCoverage.getInstructionCounter().getCoveredCount())
+                .isEqualTo(classCoverage.getInstructionCounter().getCoveredCount());
+        }
+    }
+
+    @Test
+    void testSourceFilesAreCopied() throws IOException {
+        final Sw5LibAnalyzer libAnalyzer = TestData.getLibAnalyzer();
+        final IBundleCoverage bundleCoverageOrig = TestData.getBundleCoverage();
+        final MagikBundleCoverageConverter converter =
+            new MagikBundleCoverageConverter(libAnalyzer, bundleCoverageOrig, false, false);
+
+        final IBundleCoverage bundleCoverage = converter.convert();
+
+        // Source files are copied as they are, only renamed, including the counters of merged subsidiary classes.
+        final IPackageCoverage packageCoverageOrig0 = List.copyOf(bundleCoverageOrig.getPackages()).get(0);
+        final IPackageCoverage packageCoverage0 = List.copyOf(bundleCoverage.getPackages()).get(0);
+        final List<ISourceFileCoverage> sourceFileCoveragesOrig = List.copyOf(packageCoverageOrig0.getSourceFiles());
+        final List<ISourceFileCoverage> sourceFileCoverages = List.copyOf(packageCoverage0.getSourceFiles());
+        assertThat(sourceFileCoverages).hasSameSizeAs(sourceFileCoveragesOrig);
+        for (int i = 0; i < sourceFileCoverages.size(); ++i) {
+            final ISourceFileCoverage sourceFileCoverageOrig = sourceFileCoveragesOrig.get(i);
+            final ISourceFileCoverage sourceFileCoverage = sourceFileCoverages.get(i);
+            assertThat(sourceFileCoverage.getName()).endsWith(sourceFileCoverageOrig.getName());
+            assertThat(sourceFileCoverage.getFirstLine()).isEqualTo(sourceFileCoverageOrig.getFirstLine());
+            assertThat(sourceFileCoverage.getLastLine()).isEqualTo(sourceFileCoverageOrig.getLastLine());
+            for (final ICoverageNode.CounterEntity counterEntity : ICoverageNode.CounterEntity.values()) {
+                assertThat(sourceFileCoverage.getCounter(counterEntity))
+                    .isEqualTo(sourceFileCoverageOrig.getCounter(counterEntity));
+            }
+        }
+        assertThat(packageCoverage0.getClassCounter().getTotalCount()).isEqualTo(5);
+    }
+
+    @Test
+    void testConvertParallelKeepsOrder() throws IOException {
+        final Sw5LibAnalyzer libAnalyzer = TestData.getLibAnalyzer();
+        final IBundleCoverage bundleCoverageOrig = TestData.getBundleCoverage();
+        final IBundleCoverage serialBundleCoverage =
+            new MagikBundleCoverageConverter(libAnalyzer, bundleCoverageOrig, false, false, 1).convert();
+        final IBundleCoverage parallelBundleCoverage =
+            new MagikBundleCoverageConverter(libAnalyzer, bundleCoverageOrig, false, false, 4).convert();
+
+        assertThat(MagikBundleCoverageConverterTest.getClassNames(parallelBundleCoverage))
+            .isEqualTo(MagikBundleCoverageConverterTest.getClassNames(serialBundleCoverage));
+        assertThat(parallelBundleCoverage.getInstructionCounter().getCoveredCount())
+            .isEqualTo(serialBundleCoverage.getInstructionCounter().getCoveredCount());
+    }
+
+    @Test
+    void testConvertCountsEachNodeOnce() throws IOException {
+        final Sw5LibAnalyzer libAnalyzer = TestData.getLibAnalyzer();
+        final IBundleCoverage bundleCoverageOrig = TestData.getBundleCoverage();
+        final MagikBundleCoverageConverter converter =
+            new MagikBundleCoverageConverter(libAnalyzer, bundleCoverageOrig, false, false);
+
+        final IBundleCoverage bundleCoverage = converter.convert();
+
+        // Totals are not changed by merging classes.
+        assertThat(bundleCoverage.getInstructionCounter())
+            .isEqualTo(bundleCoverageOrig.getInstructionCounter());
+        assertThat(bundleCoverage.getLineCounter())
+            .isEqualTo(bundleCoverageOrig.getLineCounter());
+        final IPackageCoverage packageCoverage0 = List.copyOf(bundleCoverage.getPackages()).get(0);
+        assertThat(bundleCoverage.getInstructionCounter())
+            .isEqualTo(packageCoverage0.getInstructionCounter());
+    }
+
+    @Test
+    void testConvertLazily() throws IOException {
+        final Sw5LibAnalyzer libAnalyzer = TestData.getLibAnalyzer();
+        final IBundleCoverage bundleCoverageOrig = TestData.getBundleCoverage();
+        final MagikBundleCoverageConverter converter =
+            new MagikBundleCoverageConverter(libAnalyzer, bundleCoverageOrig, true, false);
+        final IBundleCoverage bundleCoverage = converter.convert();
+
+        final IBundleCoverage lazyBundleCoverage = converter.convertLazily();
+
+        assertThat(MagikBundleCoverageConverterTest.getClassNames(lazyBundleCoverage))
+            .isEqualTo(MagikBundleCoverageConverterTest.getClassNames(bundleCoverage));
+        assertThat(lazyBundleCoverage.getPackages()).hasSameSizeAs(bundleCoverage.getPackages());
+        assertThat(lazyBundleCoverage.getLineCounter().getTotalCount())
+            .isEqualTo(bundleCoverage.getLineCounter().getTotalCount());
+        assertThat(lazyBundleCoverage.getComplexityCounter().getTotalCount())
+            .isEqualTo(bundleCoverage.getComplexityCounter().getTotalCount());
+
+        // Converted packages are not retained.
+        final IPackageCoverage packageCoverage0 = lazyBundleCoverage.getPackages().iterator().next();
+        assertThat(lazyBundleCoverage.getPackages().iterator().next()).isNotSameAs(packageCoverage0);
+    }
+
+    @Test
+    void testConvertLazilySize() throws IOException {
+        final IBundleCoverage bundleCoverageOrig = TestData.getBundleCoverage();
+        final IBundleCoverage lazyBundleCoverage = new LazyBundleCoverage(
+            bundleCoverageOrig.getName(),
+            List.copyOf(bundleCoverageOrig.getPackages()),
+            packageCoverage -> {
+                throw new IllegalStateException("Converted");
+            });
+
+        // The size of the packages is known without converting them.
+        assertThat(lazyBundleCoverage.getPackages().size()).isEqualTo(1);
+        assertThat(lazyBundleCoverage.getPackages().isEmpty()).isFalse();
+    }
+
+    @Test
+    void testConvertWithoutMethods() throws IOException {
+        final Sw5LibAnalyzer libAnalyzer = TestData.getLibAnalyzer();
+        final IBundleCoverage bundleCoverageOrig = TestData.getBundleCoverage();
+        for (final boolean discardExecutable : List.of(false, true)) {
+            final IBundleCoverage bundleCoverage =
+                new MagikBundleCoverageConverter(libAnalyzer, bundleCoverageOrig, discardExecutable, false).convert();
+            final MagikBundleCoverageConverter converter =
+                new MagikBundleCoverageConverter(libAnalyzer, bundleCoverageOrig, discardExecutable, false);
+            converter.setMethodsRequired(false);
+
+            final IBundleCoverage linesBundleCoverage = converter.convert();
+
+            // Same lines for all source files, but no methods.
+            assertThat(MagikBundleCoverageConverterTest.getLines(linesBundleCoverage))
+                .isEqualTo(MagikBundleCoverageConverterTest.getLines(bundleCoverage));
+            final IPackageCoverage packageCoverage0 = List.copyOf(linesBundleCoverage.getPackages()).get(0);
+            assertThat(packageCoverage0.getClasses())
+                .filteredOn(classCoverage -> classCoverage.getName().equals(TestData.PRIMARY_CLASS_CHAR16_VECTOR))
+                .singleElement()
+                .satisfies(classCoverage -> assertThat(classCoverage.getMethods()).isEmpty());
+        }
+    }
+
+    @Test
+    void testConvertWithoutMethodsClassCounters() throws IOException {
+        final Sw5LibAnalyzer libAnalyzer = TestData.getLibAnalyzer();
+        final IBundleCoverage bundleCoverageOrig = TestData.getBundleCoverage();
+        for (final boolean discardExecutable : List.of(false, true)) {
+            final IBundleCoverage bundleCoverage =
+                new MagikBundleCoverageConverter(libAnalyzer, bundleCoverageOrig, discardExecutable, false).convert();
+            final MagikBundleCoverageConverter converter =
+                new MagikBundleCoverageConverter(libAnalyzer, bundleCoverageOrig, discardExecutable, false);
+            converter.setMethodsRequired(false);
+
+            final IBundleCoverage linesBundleCoverage = converter.convert();
+
+            // Same counters for all classes, methods are merged in both cases.
+            assertThat(MagikBundleCoverageConverterTest.getClassCounters(linesBundleCoverage))
+                .isEqualTo(MagikBundleCoverageConverterTest.getClassCounters(bundleCoverage));
+        }
+    }
+
+    private static List<String> getClassCounters(final IBundleCoverage bundleCoverage) {
+        return bundleCoverage.getPackages().stream()
+            .flatMap(packageCoverage -> packageCoverage.getClasses().stream())
+            .flatMap(classCoverage -> Arrays.stream(ICoverageNode.CounterEntity.values())
+                .map(counterEntity -> classCoverage.getName()
+                    + " " + counterEntity
+                    + " " + classCoverage.getCounter(counterEntity)))
+            .collect(Collectors.toList());
+    }
+
+    private static List<String> getLines(final IBundleCoverage bundleCoverage) {
+        return bundleCoverage.getPackages().stream()
+            .flatMap(packageCoverage -> packageCoverage.getSourceFiles().stream())
+            .flatMap(sourceFileCoverage -> IntStream.rangeClosed(
+                    sourceFileCoverage.getFirstLine(),
+                    sourceFileCoverage.getLastLine())
+                .mapToObj(nr -> {
+                    final ILine line = sourceFileCoverage.getLine(nr);
+                    return sourceFileCoverage.getName() + ":" + nr
+                        + " " + line.getInstructionCounter()
+                        + " " + line.getBranchCounter();
+                }))
+            .collect(Collectors.toList());
+    }
+
+    private static List<String> getClassNames(final IBundleCoverage bundleCoverage) {
+        return bundleCoverage.getPackages().stream()
+            .flatMap(packageCoverage -> packageCoverage.getClasses().stream())
+            .map(IClassCoverage::getName)
+            .collect(Collectors.toList());
+    }
+
 }
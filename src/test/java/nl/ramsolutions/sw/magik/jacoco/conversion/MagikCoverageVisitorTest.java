@@ -0,0 +1,175 @@
+package nl.ramsolutions.sw.magik.jacoco.conversion;
+
+import nl.ramsolutions.sw.magik.jacoco.TestData;
+import nl.ramsolutions.sw.magik.jacoco.helpers.SmallworldProducts;
+import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5ClassInfo;
+import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5LibAnalyzer;
+import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5LibReader;
+import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5LibReaderOptions;
+import org.jacoco.core.analysis.Analyzer;
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.analysis.IBundleCoverage;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICounter;
+import org.jacoco.core.analysis.ICoverageNode;
+import org.jacoco.core.analysis.ICoverageNode.CounterEntity;
+import org.jacoco.core.analysis.IMethodCoverage;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.tools.ExecFileLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for MagikCoverageVisitor.
+ */
+class MagikCoverageVisitorTest {
+
+    private static IBundleCoverage getStreamedBundleCoverage(
+            final boolean discardExecutable,
+            final boolean discardNonMagik) throws IOException {
+        final ExecFileLoader execFileLoader = new ExecFileLoader();
+        execFileLoader.load(TestData.JACOCO_EXEC_FILE);
+        final ExecutionDataStore dataStore = execFileLoader.getExecutionDataStore();
+
+        final CoverageBuilder coverageBuilder = new CoverageBuilder();
+        final Map<String, Sw5ClassInfo> classInfos = new HashMap<>();
+        final SmallworldProducts smallworldProducts = new SmallworldProducts(TestData.PRODUCT_PATHS);
+        final MagikCoverageVisitor magikCoverageVisitor = new MagikCoverageVisitor(
+            classInfos::get, coverageBuilder, smallworldProducts, discardExecutable, discardNonMagik);
+        final Sw5LibReaderOptions options = new Sw5LibReaderOptions();
+        options.setThreads(1);
+        options.setBytecodeConsumer((classInfo, bytecode, location) -> {
+            classInfos.put(classInfo.getName(), classInfo);
+            final Analyzer analyzer = new Analyzer(dataStore, magikCoverageVisitor);
+            analyzer.analyzeClass(bytecode, location);
+        });
+        new Sw5LibReader(TestData.PRODUCT_PATHS, options);
+        magikCoverageVisitor.flush();
+
+        return coverageBuilder.getBundle("Title");
+    }
+
+    private static Map<String, Map<String, Integer>> getCoveredInstructions(final IBundleCoverage bundleCoverage) {
+        return bundleCoverage.getPackages().stream()
+            .flatMap(packageCoverage -> packageCoverage.getClasses().stream())
+            .collect(Collectors.toMap(
+                IClassCoverage::getName,
+                classCoverage -> classCoverage.getMethods().stream()
+                    .collect(Collectors.toMap(
+                        IMethodCoverage::getName,
+                        methodCoverage -> methodCoverage.getInstructionCounter().getCoveredCount(),
+                        Integer::sum,
+                        TreeMap::new)),
+                (methods1, methods2) -> methods1,
+                TreeMap::new));
+    }
+
+    private static Map<String, Integer> getCoveredLines(final IBundleCoverage bundleCoverage) {
+        return bundleCoverage.getPackages().stream()
+            .flatMap(packageCoverage -> packageCoverage.getClasses().stream())
+            .collect(Collectors.toMap(
+                IClassCoverage::getName,
+                classCoverage -> classCoverage.getLineCounter().getCoveredCount(),
+                Integer::sum,
+                TreeMap::new));
+    }
+
+    private static Map<String, Map<CounterEntity, ICounter>> getCounters(
+            final IBundleCoverage bundleCoverage,
+            final Set<CounterEntity> counterEntities) {
+        return Stream.concat(Stream.of(bundleCoverage), bundleCoverage.getPackages().stream())
+            .collect(Collectors.toMap(
+                ICoverageNode::getName,
+                node -> counterEntities.stream()
+                    .collect(Collectors.toMap(
+                        Function.identity(),
+                        node::getCounter,
+                        (counter1, counter2) -> counter1,
+                        () -> new EnumMap<>(CounterEntity.class))),
+                (counters1, counters2) -> counters1,
+                TreeMap::new));
+    }
+
+    private static void assertEqualsConvertedBundleCounters(
+            final boolean discardExecutable,
+            final boolean discardNonMagik,
+            final Set<CounterEntity> counterEntities) throws IOException {
+        final Sw5LibAnalyzer libAnalyzer = TestData.getLibAnalyzer();
+        final IBundleCoverage bundleCoverageOrig = TestData.getBundleCoverage();
+        final IBundleCoverage expectedBundleCoverage = new MagikBundleCoverageConverter(
+            libAnalyzer, bundleCoverageOrig, discardExecutable, discardNonMagik).convert();
+
+        final IBundleCoverage bundleCoverage =
+            MagikCoverageVisitorTest.getStreamedBundleCoverage(discardExecutable, discardNonMagik);
+
+        assertThat(MagikCoverageVisitorTest.getCounters(bundleCoverage, counterEntities))
+            .isEqualTo(MagikCoverageVisitorTest.getCounters(expectedBundleCoverage, counterEntities));
+    }
+
+    private static void assertEqualsConvertedBundle(
+            final boolean discardExecutable,
+            final boolean discardNonMagik) throws IOException {
+        final Sw5LibAnalyzer libAnalyzer = TestData.getLibAnalyzer();
+        final IBundleCoverage bundleCoverageOrig = TestData.getBundleCoverage();
+        final IBundleCoverage expectedBundleCoverage = new MagikBundleCoverageConverter(
+            libAnalyzer, bundleCoverageOrig, discardExecutable, discardNonMagik).convert();
+
+        final IBundleCoverage bundleCoverage =
+            MagikCoverageVisitorTest.getStreamedBundleCoverage(discardExecutable, discardNonMagik);
+
+        assertThat(MagikCoverageVisitorTest.getCoveredInstructions(bundleCoverage))
+            .isEqualTo(MagikCoverageVisitorTest.getCoveredInstructions(expectedBundleCoverage));
+        assertThat(MagikCoverageVisitorTest.getCoveredLines(bundleCoverage))
+            .isEqualTo(MagikCoverageVisitorTest.getCoveredLines(expectedBundleCoverage));
+    }
+
+    @Test
+    void testEqualsConvertedBundle() throws IOException {
+        MagikCoverageVisitorTest.assertEqualsConvertedBundle(false, false);
+    }
+
+    @Test
+    void testEqualsConvertedBundleDiscardExecutable() throws IOException {
+        MagikCoverageVisitorTest.assertEqualsConvertedBundle(true, true);
+    }
+
+    @Test
+    void testEqualsConvertedBundleCounters() throws IOException {
+        MagikCoverageVisitorTest.assertEqualsConvertedBundleCounters(
+            false, false, EnumSet.complementOf(EnumSet.of(CounterEntity.CLASS)));
+    }
+
+    @SuppressWarnings("checkstyle:MagicNumber")
+    @Test
+    void testConvertedBundleClassCounters() throws IOException {
+        final Sw5LibAnalyzer libAnalyzer = TestData.getLibAnalyzer();
+        final IBundleCoverage bundleCoverageOrig = TestData.getBundleCoverage();
+        final IBundleCoverage convertedBundleCoverage =
+            new MagikBundleCoverageConverter(libAnalyzer, bundleCoverageOrig, false, false).convert();
+
+        final IBundleCoverage bundleCoverage = MagikCoverageVisitorTest.getStreamedBundleCoverage(false, false);
+
+        // Batch conversion copies the source files as they are, still counting the merged subsidiary classes. When
+        // streaming, the source files are built from the converted classes, counting each pair once.
+        assertThat(convertedBundleCoverage.getClassCounter().getTotalCount()).isEqualTo(5);
+        assertThat(bundleCoverage.getClassCounter().getTotalCount()).isEqualTo(3);
+    }
+
+    @Test
+    void testEqualsConvertedBundleCountersDiscardExecutable() throws IOException {
+        MagikCoverageVisitorTest.assertEqualsConvertedBundleCounters(true, true, EnumSet.allOf(CounterEntity.class));
+    }
+
+}
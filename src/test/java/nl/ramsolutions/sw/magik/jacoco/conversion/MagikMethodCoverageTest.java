@@ -0,0 +1,99 @@
+package nl.ramsolutions.sw.magik.jacoco.conversion;
+
+import org.jacoco.core.analysis.ICounter;
+import org.jacoco.core.analysis.ICoverageNode;
+import org.jacoco.core.analysis.IMethodCoverage;
+import org.jacoco.core.analysis.ISourceNode;
+import org.jacoco.core.internal.analysis.CounterImpl;
+import org.jacoco.core.internal.analysis.MethodCoverageImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for MagikMethodCoverage.
+ */
+@SuppressWarnings("checkstyle:MagicNumber")
+class MagikMethodCoverageTest {
+
+    private static MethodCoverageImpl createMethodCoverage(final int firstLine, final int lastLine, final int covered) {
+        final MethodCoverageImpl methodCoverage = new MethodCoverageImpl("method" + firstLine, "()V", null);
+        for (int line = firstLine; line <= lastLine; ++line) {
+            final CounterImpl instructions = line < firstLine + covered
+                ? CounterImpl.COUNTER_0_1
+                : CounterImpl.COUNTER_1_0;
+            final CounterImpl branches = line == lastLine
+                ? CounterImpl.getInstance(1, 1)
+                : CounterImpl.COUNTER_0_0;
+            methodCoverage.increment(instructions, branches, line);
+        }
+        methodCoverage.incrementMethodCounter();
+        return methodCoverage;
+    }
+
+    private static void assertSameCoverage(final ISourceNode actual, final ISourceNode expected) {
+        for (final ICoverageNode.CounterEntity entity : ICoverageNode.CounterEntity.values()) {
+            final ICounter actualCounter = actual.getCounter(entity);
+            final ICounter expectedCounter = expected.getCounter(entity);
+            assertThat(actualCounter.getMissedCount()).as(entity.name()).isEqualTo(expectedCounter.getMissedCount());
+            assertThat(actualCounter.getCoveredCount()).as(entity.name()).isEqualTo(expectedCounter.getCoveredCount());
+        }
+        assertThat(actual.getFirstLine()).isEqualTo(expected.getFirstLine());
+        assertThat(actual.getLastLine()).isEqualTo(expected.getLastLine());
+        for (int nr = expected.getFirstLine() - 1; nr <= expected.getLastLine() + 1; ++nr) {
+            assertThat(actual.getLine(nr).getInstructionCounter())
+                .isEqualTo(expected.getLine(nr).getInstructionCounter());
+            assertThat(actual.getLine(nr).getBranchCounter())
+                .isEqualTo(expected.getLine(nr).getBranchCounter());
+        }
+    }
+
+    @Test
+    void testIncrementSameAsJacoco() {
+        // Overlapping and disjoint ranges, extending the lines on both sides.
+        final List<IMethodCoverage> methodCoverages = List.of(
+            MagikMethodCoverageTest.createMethodCoverage(20, 25, 2),
+            MagikMethodCoverageTest.createMethodCoverage(10, 12, 0),
+            MagikMethodCoverageTest.createMethodCoverage(22, 30, 9),
+            MagikMethodCoverageTest.createMethodCoverage(40, 41, 1));
+
+        final MagikMethodCoverage actual = new MagikMethodCoverage("method", "", null);
+        final MethodCoverageImpl expected = new MethodCoverageImpl("method", "", null);
+        for (final IMethodCoverage methodCoverage : methodCoverages) {
+            actual.increment(methodCoverage);
+            expected.increment(methodCoverage);
+        }
+
+        MagikMethodCoverageTest.assertSameCoverage(actual, expected);
+    }
+
+    @Test
+    void testBulkIncrement() {
+        final MagikMethodCoverage first = new MagikMethodCoverage("first", "", null);
+        first.increment(MagikMethodCoverageTest.createMethodCoverage(20, 25, 2));
+        final MagikMethodCoverage second = new MagikMethodCoverage("second", "", null);
+        second.increment(MagikMethodCoverageTest.createMethodCoverage(10, 22, 5));
+
+        final MagikMethodCoverage actual = new MagikMethodCoverage("method", "", null);
+        actual.increment(first);
+        actual.increment(second);
+        final MethodCoverageImpl expected = new MethodCoverageImpl("method", "", null);
+        expected.increment(first);
+        expected.increment(second);
+
+        MagikMethodCoverageTest.assertSameCoverage(actual, expected);
+    }
+
+    @Test
+    void testEmpty() {
+        final MagikMethodCoverage methodCoverage = new MagikMethodCoverage("method", "", null);
+        methodCoverage.increment(new MethodCoverageImpl("empty", "", null));
+
+        assertThat(methodCoverage.getFirstLine()).isEqualTo(ISourceNode.UNKNOWN_LINE);
+        assertThat(methodCoverage.getLastLine()).isEqualTo(ISourceNode.UNKNOWN_LINE);
+        assertThat(methodCoverage.getLineCounter().getTotalCount()).isZero();
+    }
+
+}
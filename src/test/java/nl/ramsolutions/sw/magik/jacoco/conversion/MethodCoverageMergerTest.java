@@ -2,13 +2,20 @@ package nl.ramsolutions.sw.magik.jacoco.conversion;
 
 import nl.ramsolutions.sw.magik.jacoco.TestData;
 import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5LibAnalyzer;
+import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5MethodInfo;
 import org.jacoco.core.analysis.IBundleCoverage;
 import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.IMethodCoverage;
 import org.jacoco.core.analysis.IPackageCoverage;
+import org.jacoco.core.internal.analysis.CounterImpl;
+import org.jacoco.core.internal.analysis.MethodCoverageImpl;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -39,4 +46,50 @@ class MethodCoverageMergerTest {
         assertThat(classCoverage0.getMethods()).hasSize(6);
     }
 
+    @Test
+    void testMergeMethodsIndependentOfOrder() {
+        // Chain: loopbody2 --> loopbody1 --> method, and a separate method.
+        final Sw5MethodInfo method = MethodCoverageMergerTest.createMethodInfo("method", null);
+        final Sw5MethodInfo loopbody1 = MethodCoverageMergerTest.createMethodInfo("loopbody1", "method");
+        final Sw5MethodInfo loopbody2 = MethodCoverageMergerTest.createMethodInfo("loopbody2", "loopbody1");
+        final Sw5MethodInfo other = MethodCoverageMergerTest.createMethodInfo("other", null);
+        final Map<Sw5MethodInfo, Sw5MethodInfo> methodDependencyMap = Map.of(
+            loopbody1, method,
+            loopbody2, loopbody1);
+        final List<List<Sw5MethodInfo>> declarationOrders = List.of(
+            List.of(method, loopbody1, loopbody2, other),
+            List.of(other, loopbody2, loopbody1, method),
+            List.of(loopbody1, other, method, loopbody2));
+
+        for (final List<Sw5MethodInfo> order : declarationOrders) {
+            final Map<Sw5MethodInfo, IMethodCoverage> methodCoverageMap = new LinkedHashMap<>();
+            int line = 1;
+            for (final Sw5MethodInfo methodInfo : order) {
+                methodCoverageMap.put(methodInfo, MethodCoverageMergerTest.createMethodCoverage(methodInfo, line++));
+            }
+
+            final Collection<IMethodCoverage> methodCoverages =
+                MethodCoverageMerger.mergeMethods(methodDependencyMap, methodCoverageMap);
+            assertThat(methodCoverages)
+                .extracting(IMethodCoverage::getName)
+                .containsExactlyInAnyOrder("method", "other");
+            final IMethodCoverage mergedCoverage = methodCoverages.stream()
+                .filter(methodCoverage -> methodCoverage.getName().equals("method"))
+                .findAny()
+                .orElseThrow();
+            assertThat(mergedCoverage.getInstructionCounter().getCoveredCount()).isEqualTo(3);
+            assertThat(mergedCoverage.getLineCounter().getTotalCount()).isEqualTo(3);
+        }
+    }
+
+    private static Sw5MethodInfo createMethodInfo(final String name, final String parentMethodName) {
+        return new Sw5MethodInfo(name, false, parentMethodName, Map.of(), Map.of());
+    }
+
+    private static IMethodCoverage createMethodCoverage(final Sw5MethodInfo methodInfo, final int line) {
+        final MethodCoverageImpl methodCoverage = new MethodCoverageImpl(methodInfo.getName(), "()V", null);
+        methodCoverage.increment(CounterImpl.COUNTER_0_1, CounterImpl.COUNTER_0_0, line);
+        return methodCoverage;
+    }
+
 }
@@ -0,0 +1,78 @@
+package nl.ramsolutions.sw.magik.jacoco.generators;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for ExecutionDataFiles.
+ */
+class ExecutionDataFilesTest {
+
+    @Test
+    void testResolveGlob(@TempDir final Path tempDir) throws IOException {
+        final Path pathB = Files.createFile(tempDir.resolve("b.exec"));
+        final Path pathA = Files.createFile(tempDir.resolve("a.exec"));
+        Files.createFile(tempDir.resolve("c.txt"));
+        Files.createDirectories(tempDir.resolve("sub"));
+        Files.createFile(tempDir.resolve("sub/d.exec"));
+
+        final List<File> files = ExecutionDataFiles.resolve(List.of(tempDir + "/*.exec", pathB.toString()));
+        assertThat(files).containsExactly(pathA.toFile(), pathB.toFile());
+    }
+
+    @Test
+    void testResolveRecursiveGlob(@TempDir final Path tempDir) throws IOException {
+        Files.createDirectories(tempDir.resolve("sub"));
+        final Path path = Files.createFile(tempDir.resolve("sub/d.exec"));
+
+        final List<File> files = ExecutionDataFiles.resolve(List.of(tempDir + "/**/*.exec"));
+        assertThat(files).containsExactly(path.toFile());
+    }
+
+    @Test
+    void testResolvePath() throws IOException {
+        final List<File> files = ExecutionDataFiles.resolve(List.of("does/not/exist.exec"));
+        assertThat(files).containsExactly(new File("does/not/exist.exec"));
+    }
+
+    @Test
+    void testResolveGlobWithoutMatches(@TempDir final Path tempDir) {
+        assertThatThrownBy(() -> ExecutionDataFiles.resolve(List.of(tempDir + "/*.exec")))
+            .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void testBaseLength() {
+        assertThat(ExecutionDataFiles.baseLength("results/*.exec", '/')).isEqualTo("results/".length());
+        assertThat(ExecutionDataFiles.baseLength("*.exec", '/')).isZero();
+        assertThat(ExecutionDataFiles.baseLength("results/jacoco.exec", '/')).isEqualTo(-1);
+    }
+
+    @Test
+    void testBaseLengthWindowsSeparator() {
+        assertThat(ExecutionDataFiles.baseLength("C:\\results\\*.exec", '\\')).isEqualTo("C:\\results\\".length());
+        assertThat(ExecutionDataFiles.baseLength("C:\\results/sub\\**\\*.exec", '\\'))
+            .isEqualTo("C:\\results/sub\\".length());
+        assertThat(ExecutionDataFiles.baseLength("C:/results/*.exec", '\\')).isEqualTo("C:/results/".length());
+    }
+
+    @Test
+    void testResolveGlobInSubdirectory(@TempDir final Path tempDir) throws IOException {
+        Files.createDirectories(tempDir.resolve("sub"));
+        final Path path = Files.createFile(tempDir.resolve("sub/d.exec"));
+        Files.createFile(tempDir.resolve("e.exec"));
+
+        final List<File> files = ExecutionDataFiles.resolve(List.of(tempDir + File.separator + "*/*.exec"));
+        assertThat(files).containsExactly(path.toFile());
+    }
+
+}
@@ -0,0 +1,123 @@
+package nl.ramsolutions.sw.magik.jacoco.generators;
+
+import nl.ramsolutions.sw.magik.jacoco.TestData;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.data.SessionInfo;
+import org.jacoco.core.tools.ExecFileLoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for ExecutionDataLoader.
+ */
+class ExecutionDataLoaderTest {
+
+    @Test
+    void testLoad() throws IOException {
+        final ExecFileLoader execFileLoader = new ExecFileLoader();
+        execFileLoader.load(TestData.JACOCO_EXEC_FILE);
+        final ExecutionDataLoader executionDataLoader = new ExecutionDataLoader(false);
+
+        executionDataLoader.load(TestData.JACOCO_EXEC_FILE);
+
+        assertThat(ExecutionDataLoaderTest.getClassNames(executionDataLoader.getExecutionDataStore().getContents()))
+            .isEqualTo(ExecutionDataLoaderTest.getClassNames(execFileLoader.getExecutionDataStore().getContents()));
+        assertThat(executionDataLoader.getSessionInfoStore().getInfos())
+            .hasSameSizeAs(execFileLoader.getSessionInfoStore().getInfos());
+    }
+
+    @Test
+    void testLoadDiscardNonMagik() throws IOException {
+        final ExecFileLoader execFileLoader = new ExecFileLoader();
+        execFileLoader.load(TestData.JACOCO_EXEC_FILE);
+        final ExecutionDataLoader executionDataLoader = new ExecutionDataLoader(true);
+
+        executionDataLoader.load(TestData.JACOCO_EXEC_FILE);
+
+        final Set<String> magikClassNames =
+            ExecutionDataLoaderTest.getClassNames(execFileLoader.getExecutionDataStore().getContents()).stream()
+                .filter(className -> className.startsWith("magik/"))
+                .collect(Collectors.toSet());
+        assertThat(ExecutionDataLoaderTest.getClassNames(executionDataLoader.getExecutionDataStore().getContents()))
+            .isNotEmpty()
+            .isEqualTo(magikClassNames);
+    }
+
+    @Test
+    void testLoadMultipleMergesProbes(@TempDir final Path tempDir) throws IOException {
+        final File file1 = ExecutionDataLoaderTest.writeExecFile(
+            tempDir.resolve("1.exec"), "session1", new ExecutionData(1L, "magik/a", new boolean[] {true, false}));
+        final File file2 = ExecutionDataLoaderTest.writeExecFile(
+            tempDir.resolve("2.exec"), "session2", new ExecutionData(1L, "magik/a", new boolean[] {false, true}));
+        final ExecutionDataLoader executionDataLoader = new ExecutionDataLoader(false);
+
+        executionDataLoader.load(List.of(file1, file2), 1);
+
+        final ExecutionData executionData = executionDataLoader.getExecutionDataStore().get(1L);
+        assertThat(executionData.getProbes()).containsExactly(true, true);
+        assertThat(executionDataLoader.getSessionInfoStore().getInfos()).hasSize(2);
+    }
+
+    @Test
+    void testLoadMultipleConflictingClassIds(@TempDir final Path tempDir) throws IOException {
+        final File file1 = ExecutionDataLoaderTest.writeExecFile(
+            tempDir.resolve("1.exec"), "session1", new ExecutionData(1L, "magik/a", new boolean[] {true}));
+        final File file2 = ExecutionDataLoaderTest.writeExecFile(
+            tempDir.resolve("2.exec"), "session2", new ExecutionData(1L, "magik/b", new boolean[] {true}));
+        final ExecutionDataLoader executionDataLoader = new ExecutionDataLoader(false);
+
+        assertThatThrownBy(() -> executionDataLoader.load(List.of(file1, file2)))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining(file2.toString());
+    }
+
+    @Test
+    void testLoadMultipleMissingFile(@TempDir final Path tempDir) throws IOException {
+        final File file1 = ExecutionDataLoaderTest.writeExecFile(
+            tempDir.resolve("1.exec"), "session1", new ExecutionData(1L, "magik/a", new boolean[] {true}));
+        final File file2 = tempDir.resolve("2.exec").toFile();
+        final ExecutionDataLoader executionDataLoader = new ExecutionDataLoader(false);
+
+        assertThatThrownBy(() -> executionDataLoader.load(List.of(file1, file2), 1))
+            .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void testLoadMultipleInvalidThreads() {
+        final ExecutionDataLoader executionDataLoader = new ExecutionDataLoader(false);
+
+        assertThatThrownBy(() -> executionDataLoader.load(List.of(), 0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static File writeExecFile(final Path path, final String sessionId, final ExecutionData executionData)
+            throws IOException {
+        try (OutputStream outputStream = Files.newOutputStream(path)) {
+            final ExecutionDataWriter writer = new ExecutionDataWriter(outputStream);
+            writer.visitSessionInfo(new SessionInfo(sessionId, 0L, 0L));
+            writer.visitClassExecution(executionData);
+        }
+        return path.toFile();
+    }
+
+    private static Set<String> getClassNames(final Collection<ExecutionData> executionDatas) {
+        return executionDatas.stream()
+            .map(ExecutionData::getName)
+            .collect(Collectors.toSet());
+    }
+
+}
@@ -18,7 +18,7 @@ class JacocoXmlReportGeneratorTest {
     void testGeneratorRunsWithoutFailure() throws IOException {
         final List<Path> productPaths = TestData.PRODUCT_PATHS;
         final List<Path> sourcePaths = Collections.emptyList();
-        final File executionDataFile = TestData.JACOCO_EXEC_FILE;
+        final List<File> executionDataFiles = List.of(TestData.JACOCO_EXEC_FILE);
         final File outputFile = Files.createTempFile("jacoco", ".xml").toFile();
         final boolean discardExecutable = true;
         final boolean discardNonMagik = true;
@@ -26,7 +26,7 @@ class JacocoXmlReportGeneratorTest {
         final JacocoXmlReportGenerator jacocoXmlReportGenerator = new JacocoXmlReportGenerator(
             productPaths,
             sourcePaths,
-            executionDataFile,
+            executionDataFiles,
             outputFile,
             discardExecutable,
             discardNonMagik,
@@ -37,4 +37,58 @@ class JacocoXmlReportGeneratorTest {
         assertThat(outputFile).exists();
     }
 
+    @Test
+    void testGeneratorTouchedOnly() throws IOException {
+        final List<Path> productPaths = TestData.PRODUCT_PATHS;
+        final List<Path> sourcePaths = Collections.emptyList();
+        final List<File> executionDataFiles = List.of(TestData.JACOCO_EXEC_FILE);
+        final File outputFile = Files.createTempFile("jacoco", ".xml").toFile();
+        final boolean discardExecutable = false;
+        final boolean discardNonMagik = true;
+        final String bundleName = "TestJacoco";
+        final JacocoXmlReportGenerator jacocoXmlReportGenerator = new JacocoXmlReportGenerator(
+            productPaths,
+            sourcePaths,
+            executionDataFiles,
+            outputFile,
+            discardExecutable,
+            discardNonMagik,
+            bundleName);
+        jacocoXmlReportGenerator.setTouchedOnly(true);
+        jacocoXmlReportGenerator.run();
+
+        // Only the touched classes are reported.
+        final String report = Files.readString(outputFile.toPath());
+        assertThat(report)
+            .contains(TestData.PRIMARY_CLASS_MIXED)
+            .doesNotContain(TestData.PRIMARY_CLASS_PRIMARY);
+    }
+
+    @Test
+    void testGeneratorStreaming() throws IOException {
+        final List<Path> productPaths = TestData.PRODUCT_PATHS;
+        final List<Path> sourcePaths = Collections.emptyList();
+        final List<File> executionDataFiles = List.of(TestData.JACOCO_EXEC_FILE);
+        final File outputFile = Files.createTempFile("jacoco", ".xml").toFile();
+        final boolean discardExecutable = false;
+        final boolean discardNonMagik = true;
+        final String bundleName = "TestJacoco";
+        final JacocoXmlReportGenerator jacocoXmlReportGenerator = new JacocoXmlReportGenerator(
+            productPaths,
+            sourcePaths,
+            executionDataFiles,
+            outputFile,
+            discardExecutable,
+            discardNonMagik,
+            bundleName);
+        jacocoXmlReportGenerator.setStreaming(true);
+        jacocoXmlReportGenerator.run();
+
+        // Subsidiary classes are merged into primary classes.
+        final String report = Files.readString(outputFile.toPath());
+        assertThat(report)
+            .contains(TestData.PRIMARY_CLASS_MIXED)
+            .doesNotContain(TestData.SUBSIDIARY_CLASS_MIXED);
+    }
+
 }
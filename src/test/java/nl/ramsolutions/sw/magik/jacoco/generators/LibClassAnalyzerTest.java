@@ -0,0 +1,68 @@
+package nl.ramsolutions.sw.magik.jacoco.generators;
+
+import nl.ramsolutions.sw.magik.jacoco.TestData;
+import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5LibReader;
+import nl.ramsolutions.sw.magik.jacoco.sw5lib.Sw5LibReaderOptions;
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.analysis.IBundleCoverage;
+import org.jacoco.core.tools.ExecFileLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for LibClassAnalyzer.
+ */
+class LibClassAnalyzerTest {
+
+    private static Sw5LibReaderOptions createOptions(final int threads, final LibClassAnalyzer libClassAnalyzer) {
+        final Sw5LibReaderOptions options = new Sw5LibReaderOptions();
+        options.setThreads(threads);
+        options.setBytecodeConsumer(libClassAnalyzer);
+        return options;
+    }
+
+    @SuppressWarnings("checkstyle:MagicNumber")
+    @Test
+    void testSinglePassEqualsAnalyzeAll() throws IOException {
+        final ExecFileLoader execFileLoader = new ExecFileLoader();
+        execFileLoader.load(TestData.JACOCO_EXEC_FILE);
+        final CoverageBuilder coverageBuilder = new CoverageBuilder();
+        final LibClassAnalyzer libClassAnalyzer =
+            new LibClassAnalyzer(execFileLoader.getExecutionDataStore(), coverageBuilder);
+        new Sw5LibReader(TestData.PRODUCT_PATHS, LibClassAnalyzerTest.createOptions(4, libClassAnalyzer));
+
+        final IBundleCoverage bundleCoverage = coverageBuilder.getBundle("Title");
+        final IBundleCoverage expectedBundleCoverage = TestData.getBundleCoverage();
+        assertThat(bundleCoverage.getClassCounter().getTotalCount())
+            .isEqualTo(expectedBundleCoverage.getClassCounter().getTotalCount());
+        assertThat(bundleCoverage.getInstructionCounter().getCoveredCount())
+            .isEqualTo(expectedBundleCoverage.getInstructionCounter().getCoveredCount());
+        assertThat(bundleCoverage.getInstructionCounter().getTotalCount())
+            .isEqualTo(expectedBundleCoverage.getInstructionCounter().getTotalCount());
+    }
+
+    @SuppressWarnings("checkstyle:MagicNumber")
+    @Test
+    void testVisitOrderIndependentOfThreads() throws IOException {
+        final ExecFileLoader execFileLoader = new ExecFileLoader();
+        execFileLoader.load(TestData.JACOCO_EXEC_FILE);
+        final List<String> serialClassNames = new ArrayList<>();
+        final LibClassAnalyzer serialLibClassAnalyzer = new LibClassAnalyzer(
+            execFileLoader.getExecutionDataStore(), classCoverage -> serialClassNames.add(classCoverage.getName()));
+        new Sw5LibReader(TestData.PRODUCT_PATHS, LibClassAnalyzerTest.createOptions(1, serialLibClassAnalyzer));
+        final List<String> parallelClassNames = new ArrayList<>();
+        final LibClassAnalyzer parallelLibClassAnalyzer = new LibClassAnalyzer(
+            execFileLoader.getExecutionDataStore(), classCoverage -> parallelClassNames.add(classCoverage.getName()));
+        new Sw5LibReader(TestData.PRODUCT_PATHS, LibClassAnalyzerTest.createOptions(4, parallelLibClassAnalyzer));
+
+        assertThat(parallelClassNames)
+            .isNotEmpty()
+            .isEqualTo(serialClassNames);
+    }
+
+}
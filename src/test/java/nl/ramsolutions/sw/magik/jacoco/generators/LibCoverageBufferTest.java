@@ -0,0 +1,38 @@
+package nl.ramsolutions.sw.magik.jacoco.generators;
+
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.internal.analysis.ClassCoverageImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for LibCoverageBuffer.
+ */
+class LibCoverageBufferTest {
+
+    @Test
+    void testBufferedUntilFlushed() {
+        final List<IClassCoverage> classCoverages = new ArrayList<>();
+        final LibCoverageBuffer libCoverageBuffer = new LibCoverageBuffer(classCoverages::add);
+        final IClassCoverage classCoverage1 = new ClassCoverageImpl("magik/a", 1L, false);
+        final IClassCoverage classCoverage2 = new ClassCoverageImpl("magik/b", 2L, false);
+
+        libCoverageBuffer.add(classCoverage1);
+        assertThat(classCoverages).isEmpty();
+
+        libCoverageBuffer.flush();
+        assertThat(classCoverages).containsExactly(classCoverage1);
+
+        // Passed on directly after flushing.
+        libCoverageBuffer.add(classCoverage2);
+        assertThat(classCoverages).containsExactly(classCoverage1, classCoverage2);
+
+        libCoverageBuffer.flush();
+        assertThat(classCoverages).containsExactly(classCoverage1, classCoverage2);
+    }
+
+}
@@ -18,7 +18,7 @@ class SonarXmlReportGeneratorTest {
     void testGeneratorRunsWithoutFailure() throws IOException {
         final List<Path> productPaths = TestData.PRODUCT_PATHS;
         final List<Path> sourcePaths = Collections.emptyList();
-        final File executionDataFile = TestData.JACOCO_EXEC_FILE;
+        final List<File> executionDataFiles = List.of(TestData.JACOCO_EXEC_FILE);
         final File outputFile = Files.createTempFile("sonar", ".xml").toFile();
         final boolean discardExecutable = true;
         final boolean discardNonMagik = true;
@@ -26,7 +26,7 @@ class SonarXmlReportGeneratorTest {
         final SonarXmlReportGenerator sonarXmlReportGenerator = new SonarXmlReportGenerator(
             productPaths,
             sourcePaths,
-            executionDataFile,
+            executionDataFiles,
             outputFile,
             discardExecutable,
             discardNonMagik,
@@ -37,4 +37,24 @@ class SonarXmlReportGeneratorTest {
         assertThat(outputFile).exists();
     }
 
+    @Test
+    void testLazyConversionGivesSameReport() throws IOException {
+        final File outputFile = Files.createTempFile("sonar", ".xml").toFile();
+        final File lazyOutputFile = Files.createTempFile("sonar-lazy", ".xml").toFile();
+        for (final File file : List.of(outputFile, lazyOutputFile)) {
+            final SonarXmlReportGenerator sonarXmlReportGenerator = new SonarXmlReportGenerator(
+                TestData.PRODUCT_PATHS,
+                Collections.emptyList(),
+                List.of(TestData.JACOCO_EXEC_FILE),
+                file,
+                true,
+                true,
+                "TestSonar");
+            sonarXmlReportGenerator.setLazyConversion(file == lazyOutputFile);
+            sonarXmlReportGenerator.run();
+        }
+
+        assertThat(lazyOutputFile).hasSameTextualContentAs(outputFile);
+    }
+
 }
@@ -0,0 +1,43 @@
+package nl.ramsolutions.sw.magik.jacoco.helpers;
+
+import nl.ramsolutions.sw.magik.jacoco.TestData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MagikSourceIndexTest {
+
+    @Test
+    void testBuild() throws IOException {
+        final Path productPath = TestData.PRODUCT_PATHS.get(0);
+        final Map<String, Path> sourcePaths = MagikSourceIndex.build(productPath);
+        final String fileName = "modules/fixture_module/source/char16_vector.magik";
+        assertThat(sourcePaths)
+            .containsEntry(fileName, productPath.resolve(fileName))
+            .allSatisfy((name, path) -> assertThat(name).endsWith(".magik"));
+    }
+
+    @Test
+    void testBuildFollowsLinks(@TempDir final Path productPath, @TempDir final Path targetPath) throws IOException {
+        final Path sourcePath = Files.createDirectories(targetPath.resolve("source"));
+        Files.writeString(sourcePath.resolve("a.magik"), "");
+        Files.writeString(targetPath.resolve("b.magik"), "");
+        final Path modulePath = Files.createDirectories(productPath.resolve("modules/module"));
+        Files.createSymbolicLink(modulePath.resolve("source"), sourcePath);
+        Files.createSymbolicLink(modulePath.resolve("b.magik"), targetPath.resolve("b.magik"));
+        Files.createSymbolicLink(sourcePath.resolve("loop"), modulePath);
+
+        final Map<String, Path> sourcePaths = MagikSourceIndex.build(productPath);
+        assertThat(sourcePaths)
+            .containsEntry("modules/module/source/a.magik", modulePath.resolve("source/a.magik"))
+            .containsEntry("modules/module/b.magik", modulePath.resolve("b.magik"))
+            .hasSize(2);
+    }
+
+}
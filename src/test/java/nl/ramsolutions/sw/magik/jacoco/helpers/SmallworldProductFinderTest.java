@@ -0,0 +1,47 @@
+package nl.ramsolutions.sw.magik.jacoco.helpers;
+
+import nl.ramsolutions.sw.magik.jacoco.TestData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SmallworldProductFinderTest {
+
+    private static void createFile(final Path path) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, "");
+    }
+
+    @Test
+    void testFindFixtureProducts() throws IOException {
+        final Path productPath = TestData.PRODUCT_PATHS.get(0);
+        final List<Path> productPaths = SmallworldProductFinder.find(productPath, 2);
+        assertThat(productPaths).containsExactly(
+            productPath,
+            productPath.resolve("tests"));
+    }
+
+    @Test
+    void testFindPrunesDirectories(@TempDir final Path tempDir) throws IOException {
+        SmallworldProductFinderTest.createFile(tempDir.resolve("product.def"));
+        SmallworldProductFinderTest.createFile(tempDir.resolve("b_product/PRODUCT.DEF"));
+        SmallworldProductFinderTest.createFile(tempDir.resolve("a_product/product.def"));
+        SmallworldProductFinderTest.createFile(tempDir.resolve("a_product/libs/product.def"));
+        SmallworldProductFinderTest.createFile(tempDir.resolve(".git/product.def"));
+        SmallworldProductFinderTest.createFile(tempDir.resolve("module/module.def"));
+        SmallworldProductFinderTest.createFile(tempDir.resolve("module/nested/product.def"));
+
+        final List<Path> productPaths = SmallworldProductFinder.find(tempDir, 1);
+        assertThat(productPaths).containsExactly(
+            tempDir,
+            tempDir.resolve("a_product"),
+            tempDir.resolve("b_product"));
+    }
+
+}
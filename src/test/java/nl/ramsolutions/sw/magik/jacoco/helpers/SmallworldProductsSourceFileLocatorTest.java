@@ -2,9 +2,13 @@ package nl.ramsolutions.sw.magik.jacoco.helpers;
 
 import nl.ramsolutions.sw.magik.jacoco.TestData;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -21,6 +25,21 @@ class SmallworldProductsSourceFileLocatorTest {
         assertThat(reader).isNotNull();
     }
 
+    @Test
+    void testGetSourceFileRemoved(@TempDir final Path productPath) throws IOException {
+        final Path sourcePath = Files.createDirectories(productPath.resolve("modules/module/source"));
+        Files.writeString(productPath.resolve("product.def"), "test_product layered_product\n");
+        final Path filePath = Files.writeString(sourcePath.resolve("a.magik"), "");
+        final SmallworldProducts smallworldProducts = new SmallworldProducts(List.of(productPath));
+        final SmallworldProductsSourceFileLocator locator = new SmallworldProductsSourceFileLocator(smallworldProducts);
+        assertThat(smallworldProducts.getSourcePath("magik/test_product/module", "modules/module/source/a.magik"))
+            .isEqualTo(filePath);
+
+        // Removed after indexing.
+        Files.delete(filePath);
+        assertThat(locator.getSourceFile("magik/test_product/module", "modules/module/source/a.magik")).isNull();
+    }
+
     @Test
     void testGetNonMagikSourceFile() throws IOException {
         final SmallworldProducts smallworldProducts = new SmallworldProducts(TestData.PRODUCT_PATHS);
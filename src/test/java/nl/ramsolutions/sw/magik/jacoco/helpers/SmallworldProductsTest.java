@@ -0,0 +1,60 @@
+package nl.ramsolutions.sw.magik.jacoco.helpers;
+
+import nl.ramsolutions.sw.magik.jacoco.TestData;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SmallworldProductsTest {
+
+    private static final String FILENAME = "modules/fixture_module/source/char16_vector.magik";
+
+    @Test
+    void testGetSourcePath() {
+        final SmallworldProducts smallworldProducts = new SmallworldProducts(TestData.PRODUCT_PATHS);
+        final Path sourcePath = smallworldProducts.getSourcePath("magik/fixture_product/fixture_module", FILENAME);
+        assertThat(sourcePath)
+            .isNotNull()
+            .endsWith(Path.of("fixture_product", FILENAME));
+    }
+
+    @Test
+    void testGetSourcePathProductNameCaseInsensitive() {
+        final SmallworldProducts smallworldProducts = new SmallworldProducts(TestData.PRODUCT_PATHS);
+        final Path sourcePath = smallworldProducts.getSourcePath("magik/FIXTURE_PRODUCT/fixture_module", FILENAME);
+        assertThat(sourcePath).isNotNull();
+    }
+
+    @Test
+    void testGetSourcePathUnknownFile() {
+        final SmallworldProducts smallworldProducts = new SmallworldProducts(TestData.PRODUCT_PATHS);
+        final Path sourcePath = smallworldProducts.getSourcePath(
+            "magik/fixture_product/fixture_module",
+            "modules/fixture_module/source/unknown.magik");
+        assertThat(sourcePath).isNull();
+    }
+
+    @Test
+    void testGetSourcePathUnknownProduct() {
+        final SmallworldProducts smallworldProducts = new SmallworldProducts(TestData.PRODUCT_PATHS);
+        final Path sourcePath = smallworldProducts.getSourcePath("magik/unknown_product/fixture_module", FILENAME);
+        assertThat(sourcePath).isNull();
+    }
+
+    @Test
+    void testGetSourcePathInvalidPackage() {
+        final SmallworldProducts smallworldProducts = new SmallworldProducts(TestData.PRODUCT_PATHS);
+        assertThatThrownBy(() -> smallworldProducts.getSourcePath("fixture_product/fixture_module", FILENAME))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testInvalidThreads() {
+        assertThatThrownBy(() -> new SmallworldProducts(TestData.PRODUCT_PATHS, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
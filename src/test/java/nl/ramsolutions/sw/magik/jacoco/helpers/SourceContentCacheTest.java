@@ -0,0 +1,61 @@
+package nl.ramsolutions.sw.magik.jacoco.helpers;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SuppressWarnings("checkstyle:MagicNumber")
+class SourceContentCacheTest {
+
+    @Test
+    void testHitsAndMisses(@TempDir final Path tempDir) throws IOException {
+        final Path path = tempDir.resolve("a.magik");
+        Files.writeString(path, "_blocké_endblock", StandardCharsets.ISO_8859_1);
+        final SourceContentCache cache = new SourceContentCache(1024);
+
+        assertThat(cache.get(path)).isEqualTo("_blocké_endblock");
+        assertThat(cache.get(path)).isEqualTo("_blocké_endblock");
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed(@TempDir final Path tempDir) throws IOException {
+        final Path pathA = Files.writeString(tempDir.resolve("a.magik"), "aaaa");
+        final Path pathB = Files.writeString(tempDir.resolve("b.magik"), "bbbb");
+        final Path pathC = Files.writeString(tempDir.resolve("c.magik"), "cccc");
+        final SourceContentCache cache = new SourceContentCache(8);
+
+        cache.get(pathA);
+        cache.get(pathB);
+        cache.get(pathA);
+        cache.get(pathC);  // Evicts b.
+        cache.get(pathA);
+        cache.get(pathB);
+        assertThat(cache.getHits()).isEqualTo(2);
+        assertThat(cache.getMisses()).isEqualTo(4);
+    }
+
+    @Test
+    void testTooLargeIsNotCached(@TempDir final Path tempDir) throws IOException {
+        final byte[] bytes = new byte[16];
+        Arrays.fill(bytes, (byte) 0xe9);
+        final Path path = Files.write(tempDir.resolve("large.magik"), bytes);
+        final SourceContentCache cache = new SourceContentCache(8);
+
+        final String content = cache.get(path);
+        assertThat(content)
+            .hasSize(bytes.length)
+            .isEqualTo(new String(bytes, StandardCharsets.ISO_8859_1));
+        cache.get(path);
+        assertThat(cache.getMisses()).isEqualTo(2);
+    }
+
+}
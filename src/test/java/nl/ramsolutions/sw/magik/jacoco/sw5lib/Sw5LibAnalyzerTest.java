@@ -4,8 +4,14 @@ import nl.ramsolutions.sw.magik.jacoco.TestData;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Tests for Sw5LibAnalyzer.
@@ -42,4 +48,32 @@ class Sw5LibAnalyzerTest {
         assertThat(magikMethod5).isEqualTo("integer.plus_100()");
     }
 
+    @SuppressWarnings("checkstyle:MagicNumber")
+    @Test
+    void testConcurrentUse() throws Exception {
+        final Sw5LibAnalyzer libAnalyzer = TestData.getLibAnalyzer();
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; ++i) {
+                futures.add(executorService.submit(() -> libAnalyzer.getMagikMethodName(
+                    TestData.SUBSIDIARY_CLASS_MIXED,
+                    "float__plus_100")));
+            }
+
+            for (final Future<String> future : futures) {
+                assertThat(future.get()).isEqualTo("float.plus_100()");
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void testInvalidThreads() throws IOException {
+        final Sw5LibReader libReader = new Sw5LibReader(List.of());
+        assertThatThrownBy(() -> new Sw5LibAnalyzer(libReader, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
 }
@@ -0,0 +1,208 @@
+package nl.ramsolutions.sw.magik.jacoco.sw5lib;
+
+import nl.ramsolutions.sw.magik.jacoco.TestData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for Sw5LibCache.
+ */
+class Sw5LibCacheTest {
+
+    private static Path copyFixtureLib(final Path productPath) throws IOException {
+        final Path fixtureLibsPath = TestData.PRODUCT_PATH.resolve("libs");
+        try (Stream<Path> paths = Files.list(fixtureLibsPath)) {
+            final Path fixtureLibPath = paths
+                .filter(path -> path.toString().endsWith(".jar"))
+                .findFirst()
+                .orElseThrow();
+            final Path libsPath = Files.createDirectories(productPath.resolve("libs"));
+            return Files.copy(fixtureLibPath, libsPath.resolve(fixtureLibPath.getFileName()));
+        }
+    }
+
+    private static Sw5LibCacheKey readCachedKey(final Path cachePath) throws IOException {
+        try (Stream<Path> paths = Files.list(cachePath)) {
+            final Path cacheFile = paths.findFirst().orElseThrow();
+            try (InputStream inputStream = Files.newInputStream(cacheFile);
+                 DataInputStream input = new DataInputStream(inputStream)) {
+                input.readInt();
+                return Sw5LibCacheKey.read(input);
+            }
+        }
+    }
+
+    /**
+     * Overwrite the content of a lib, keeping its size and modification time.
+     * @param libPath Lib to scramble.
+     * @throws IOException -
+     */
+    private static void scrambleLib(final Path libPath) throws IOException {
+        final FileTime lastModified = Files.getLastModifiedTime(libPath);
+        Files.write(libPath, new byte[(int) Files.size(libPath)]);
+        Files.setLastModifiedTime(libPath, lastModified);
+    }
+
+    /**
+     * Replace the classes in the cache file by a class count only.
+     * @param cachePath Cache directory.
+     * @param classCount Class count to write.
+     * @throws IOException -
+     */
+    private static void corruptCacheFile(final Path cachePath, final int classCount) throws IOException {
+        try (Stream<Path> paths = Files.list(cachePath)) {
+            final Path cacheFile = paths.findFirst().orElseThrow();
+            final byte[] content = Files.readAllBytes(cacheFile);
+            final ByteBuffer buffer = ByteBuffer.wrap(content);
+            buffer.position(content.length - Integer.BYTES);
+            buffer.putInt(classCount);
+            Files.write(cacheFile, content);
+        }
+    }
+
+    @Test
+    void testCachedClassesAreEqual(@TempDir final Path cachePath) throws IOException {
+        final Sw5LibReaderOptions options = new Sw5LibReaderOptions();
+        options.setCachePath(cachePath);
+        final Sw5LibReader libReader = new Sw5LibReader(TestData.PRODUCT_PATHS, options);
+        final Sw5LibReader cachedLibReader = new Sw5LibReader(TestData.PRODUCT_PATHS, options);
+
+        final Sw5ClassInfo classInfo = libReader.getClassByName(TestData.PRIMARY_CLASS_MIXED + ".class");
+        final Sw5ClassInfo cachedClassInfo = cachedLibReader.getClassByName(TestData.PRIMARY_CLASS_MIXED + ".class");
+        assertThat(cachedClassInfo).isNotNull();
+        assertThat(cachedClassInfo.getSubsidiaryClassName()).isEqualTo(classInfo.getSubsidiaryClassName());
+        assertThat(cachedClassInfo.getMethods()).hasSameSizeAs(classInfo.getMethods());
+        assertThat(cachedClassInfo.getExecuteMethod().getMethodNames())
+            .isEqualTo(classInfo.getExecuteMethod().getMethodNames());
+        assertThat(cachedLibReader.getSubsidiaryClasses()).hasSameSizeAs(libReader.getSubsidiaryClasses());
+    }
+
+    @Test
+    void testCacheIsUsed(@TempDir final Path productPath, @TempDir final Path cachePath) throws IOException {
+        final Path libPath = Sw5LibCacheTest.copyFixtureLib(productPath);
+        final Sw5LibCache cache = new Sw5LibCache(cachePath);
+        assertThat(cache.load(Sw5LibCacheKey.of(libPath, false))).isNull();
+
+        cache.store(Sw5LibCacheKey.of(libPath, false), Map.of());
+        assertThat(cache.load(Sw5LibCacheKey.of(libPath, false))).isEmpty();
+    }
+
+    @Test
+    void testTouchedLibIsValidatedByContent(@TempDir final Path productPath, @TempDir final Path cachePath)
+            throws IOException {
+        final Path libPath = Sw5LibCacheTest.copyFixtureLib(productPath);
+        final Sw5LibCache cache = new Sw5LibCache(cachePath);
+        cache.store(Sw5LibCacheKey.of(libPath, false), Map.of());
+
+        // Only the modification time changed, content is the same.
+        Files.setLastModifiedTime(libPath, FileTime.fromMillis(0));
+        assertThat(cache.load(Sw5LibCacheKey.of(libPath, false))).isEmpty();
+
+        // Modification time is refreshed, the content is not hashed again.
+        assertThat(Sw5LibCacheTest.readCachedKey(cachePath).getLastModified()).isZero();
+    }
+
+    @Test
+    void testChangedLibIsNotCached(@TempDir final Path productPath, @TempDir final Path cachePath)
+            throws IOException {
+        final Path libPath = Sw5LibCacheTest.copyFixtureLib(productPath);
+        final Sw5LibCache cache = new Sw5LibCache(cachePath);
+        cache.store(Sw5LibCacheKey.of(libPath, false), Map.of());
+
+        Files.write(libPath, List.of("changed"));
+        assertThat(cache.load(Sw5LibCacheKey.of(libPath, false))).isNull();
+    }
+
+    @Test
+    void testMagikOnlyCacheIsNotUsedForAllClasses(@TempDir final Path productPath, @TempDir final Path cachePath)
+            throws IOException {
+        final Path libPath = Sw5LibCacheTest.copyFixtureLib(productPath);
+        final Sw5LibCache cache = new Sw5LibCache(cachePath);
+        cache.store(Sw5LibCacheKey.of(libPath, true), Map.of());
+
+        assertThat(cache.load(Sw5LibCacheKey.of(libPath, true))).isEmpty();
+        assertThat(cache.load(Sw5LibCacheKey.of(libPath, false))).isNull();
+    }
+
+    @Test
+    void testAllClassesCacheIsFilteredForMagikOnly(@TempDir final Path productPath, @TempDir final Path cachePath)
+            throws IOException {
+        final Path libPath = Sw5LibCacheTest.copyFixtureLib(productPath);
+        final Sw5ClassInfo classInfo = TestData.getLibReader().getClassByName(TestData.PRIMARY_CLASS_MIXED + ".class");
+        final Sw5LibCache cache = new Sw5LibCache(cachePath);
+        cache.store(
+            Sw5LibCacheKey.of(libPath, false),
+            Map.of(TestData.PRIMARY_CLASS_MIXED + ".class", classInfo, "java/lang/Object.class", classInfo));
+
+        assertThat(cache.load(Sw5LibCacheKey.of(libPath, true)))
+            .containsOnlyKeys(TestData.PRIMARY_CLASS_MIXED + ".class");
+        assertThat(cache.load(Sw5LibCacheKey.of(libPath, false)))
+            .containsOnlyKeys(TestData.PRIMARY_CLASS_MIXED + ".class", "java/lang/Object.class");
+    }
+
+    @Test
+    void testTouchedMagikOnlyReadIsCached(@TempDir final Path productPath, @TempDir final Path cachePath)
+            throws IOException {
+        final Path libPath = Sw5LibCacheTest.copyFixtureLib(productPath);
+        final List<Path> productPaths = List.of(productPath);
+        final Sw5LibReaderOptions options = new Sw5LibReaderOptions();
+        options.setCachePath(cachePath);
+        options.setTouchedClassNames(List.of(TestData.PRIMARY_CLASS_MIXED));
+        options.setMagikOnly(true);
+        final Sw5LibReader libReader = new Sw5LibReader(productPaths, options);
+        assertThat(libReader.getClassByName(TestData.SUBSIDIARY_CLASS_MIXED + ".class")).isNotNull();
+
+        // Without a bytecode consumer, a cached lib is never read, only classes are selected from cache.
+        Sw5LibCacheTest.scrambleLib(libPath);
+        final Sw5LibReader cachedLibReader = new Sw5LibReader(productPaths, options);
+        assertThat(cachedLibReader.getClassByName(TestData.PRIMARY_CLASS_MIXED + ".class")).isNotNull();
+        assertThat(cachedLibReader.getClassByName(TestData.SUBSIDIARY_CLASS_MIXED + ".class")).isNotNull();
+        assertThat(cachedLibReader.getClassByName(TestData.PRIMARY_CLASS_CHAR16_VECTOR + ".class")).isNull();
+        options.setTouchedClassNames(null);
+        final Sw5LibReader allCachedLibReader = new Sw5LibReader(productPaths, options);
+        assertThat(allCachedLibReader.getClassByName(TestData.PRIMARY_CLASS_CHAR16_VECTOR + ".class")).isNotNull();
+
+        // With a bytecode consumer, the bytecode is still read from the lib.
+        options.setBytecodeConsumer((classInfo, bytecode, location) -> { });
+        assertThatThrownBy(() -> new Sw5LibReader(productPaths, options))
+            .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void testCorruptCacheIsNotCached(@TempDir final Path productPath, @TempDir final Path cachePath)
+            throws IOException {
+        final Path libPath = Sw5LibCacheTest.copyFixtureLib(productPath);
+        final Sw5LibCache cache = new Sw5LibCache(cachePath);
+        cache.store(Sw5LibCacheKey.of(libPath, false), Map.of());
+
+        Sw5LibCacheTest.corruptCacheFile(cachePath, Integer.MAX_VALUE);
+        assertThat(cache.load(Sw5LibCacheKey.of(libPath, false))).isNull();
+    }
+
+    @Test
+    void testUnwritableCacheIsNotStored(@TempDir final Path productPath, @TempDir final Path tempPath)
+            throws IOException {
+        final Path libPath = Sw5LibCacheTest.copyFixtureLib(productPath);
+        final Path cachePath = tempPath.resolve("cache");
+        final Sw5LibCache cache = new Sw5LibCache(cachePath);
+        Files.delete(cachePath);
+
+        cache.store(Sw5LibCacheKey.of(libPath, false), Map.of());
+        assertThat(cache.load(Sw5LibCacheKey.of(libPath, false))).isNull();
+    }
+
+}
@@ -1,11 +1,12 @@
 package nl.ramsolutions.sw.magik.jacoco.sw5lib;
 
+import nl.ramsolutions.sw.magik.jacoco.CountingCollection;
 import nl.ramsolutions.sw.magik.jacoco.TestData;
 import org.junit.jupiter.api.Test;
-import org.objectweb.asm.tree.ClassNode;
-import org.objectweb.asm.tree.MethodNode;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -16,15 +17,50 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 class Sw5LibDependencyBuilderTest {
 
+    private static final int SYNTHETIC_CLASS_COUNT = 1_000;
+    private static final int SCALING_CLASS_COUNT = 50_000;
+
+    /**
+     * Create a synthetic product, with as many primary as subsidiary classes, in reverse order.
+     * @param classCount Total number of classes.
+     * @return Primary classes and subsidiary classes.
+     */
+    private static List<List<Sw5ClassInfo>> createSyntheticClasses(final int classCount) {
+        final List<Sw5ClassInfo> primaryClasses = new ArrayList<>();
+        final List<Sw5ClassInfo> subsidiaryClasses = new ArrayList<>();
+        for (int i = 0; i < classCount / 2; ++i) {
+            final String primaryClassName = "magik/synthetic_product/synthetic_module/class_" + (2 * i);
+            final String subsidiaryClassName = "magik/synthetic_product/synthetic_module/class_" + (2 * i + 1);
+            primaryClasses.add(new Sw5ClassInfo(primaryClassName, "Primary", subsidiaryClassName, List.of()));
+            subsidiaryClasses.add(0, new Sw5ClassInfo(subsidiaryClassName, "Subsidiary", null, List.of()));
+        }
+        return List.of(primaryClasses, subsidiaryClasses);
+    }
+
+    /**
+     * Count the classes visited while building the class dependency map of a synthetic product.
+     * @param classCount Total number of classes.
+     * @return Number of classes visited.
+     */
+    private static long countBuildClassDependencyMapVisits(final int classCount) {
+        final List<List<Sw5ClassInfo>> classes = Sw5LibDependencyBuilderTest.createSyntheticClasses(classCount);
+        final CountingCollection<Sw5ClassInfo> primaryClasses = new CountingCollection<>(classes.get(0));
+        final CountingCollection<Sw5ClassInfo> subsidiaryClasses = new CountingCollection<>(classes.get(1));
+        final Map<Sw5ClassInfo, Sw5ClassInfo> dependencyMap =
+            Sw5LibDependencyBuilder.buildClassDependencyMap(primaryClasses, subsidiaryClasses);
+        assertThat(dependencyMap).hasSize(classCount / 2);
+        return primaryClasses.getVisits() + subsidiaryClasses.getVisits();
+    }
+
     @SafeVarargs
     private void assertMappingContainsOnly(
-            final Map<MethodNode, MethodNode> map,
+            final Map<Sw5MethodInfo, Sw5MethodInfo> map,
             final Map.Entry<String, String>... entries) {
         final Map<String, String> namesMap = map.entrySet().stream()
             .map(entry -> {
-                final MethodNode key = entry.getKey();
-                final MethodNode value = entry.getValue();
-                return Map.entry(key.name, value.name);
+                final Sw5MethodInfo key = entry.getKey();
+                final Sw5MethodInfo value = entry.getValue();
+                return Map.entry(key.getName(), value.getName());
             })
             .collect(Collectors.toMap(
                 Map.Entry::getKey,
@@ -33,16 +69,57 @@ class Sw5LibDependencyBuilderTest {
             .containsOnly(entries);
     }
 
+    @Test
+    void testBuildClassDependencyMap() throws IOException {
+        final Sw5LibReader libReader = TestData.getLibReader();
+        final Map<Sw5ClassInfo, Sw5ClassInfo> classDependencyMap = Sw5LibDependencyBuilder.buildClassDependencyMap(
+            libReader.getPrimaryClasses(),
+            libReader.getSubsidiaryClasses());
+        final Sw5ClassInfo primaryClass = libReader.getClassByName(TestData.PRIMARY_CLASS_MIXED + ".class");
+        final Sw5ClassInfo subsidiaryClass = libReader.getClassByName(TestData.SUBSIDIARY_CLASS_MIXED + ".class");
+        assertThat(classDependencyMap).containsEntry(primaryClass, subsidiaryClass);
+    }
+
+    @Test
+    void testBuildClassDependencyMapSynthetic() {
+        final List<List<Sw5ClassInfo>> classes =
+            Sw5LibDependencyBuilderTest.createSyntheticClasses(SYNTHETIC_CLASS_COUNT);
+        final Map<Sw5ClassInfo, Sw5ClassInfo> classDependencyMap =
+            Sw5LibDependencyBuilder.buildClassDependencyMap(classes.get(0), classes.get(1));
+
+        // Each primary class is mapped to its own subsidiary class, regardless of order.
+        assertThat(classDependencyMap).hasSize(SYNTHETIC_CLASS_COUNT / 2);
+        classDependencyMap.forEach((primaryClass, subsidiaryClass) ->
+            assertThat(subsidiaryClass.getName()).isEqualTo(primaryClass.getSubsidiaryClassName()));
+    }
+
+    /**
+     * Building the class dependency map on a synthetic 50k-class product is linear.
+     *
+     * <p>
+     * Each class is visited once, so doubling the number of classes doubles the number of visits, where scanning the
+     * subsidiary classes for each primary class would quadruple it.
+     * </p>
+     */
+    @Test
+    void testBuildClassDependencyMapIsLinear() {
+        final long visitsHalf =
+            Sw5LibDependencyBuilderTest.countBuildClassDependencyMapVisits(SCALING_CLASS_COUNT / 2);
+        final long visitsFull = Sw5LibDependencyBuilderTest.countBuildClassDependencyMapVisits(SCALING_CLASS_COUNT);
+        assertThat(visitsHalf).isEqualTo(SCALING_CLASS_COUNT / 2);
+        assertThat(visitsFull).isEqualTo(2 * visitsHalf);
+    }
+
     @Test
     void testBuildMethodDependencyMapChar16Vector1() throws IOException {
         final Sw5LibReader libReader = TestData.getLibReader();
-        final ClassNode primaryClassNode =
+        final Sw5ClassInfo primaryClass =
             libReader.getClassByName(TestData.PRIMARY_CLASS_CHAR16_VECTOR + ".class");
-        final ClassNode subsidiaryClassNode =
+        final Sw5ClassInfo subsidiaryClass =
             libReader.getClassByName(TestData.SUBSIDIARY_CLASS_CHAR16_VECTOR + ".class");
 
-        final Map<MethodNode, MethodNode> methodDependencyMap =
-            Sw5LibDependencyBuilder.buildMethodDependencyMap(primaryClassNode, subsidiaryClassNode);
+        final Map<Sw5MethodInfo, Sw5MethodInfo> methodDependencyMap =
+            Sw5LibDependencyBuilder.buildMethodDependencyMap(primaryClass, subsidiaryClass);
         this.assertMappingContainsOnly(
             methodDependencyMap,
             Map.entry("__loopbody_", "char16_vector__method1"));
@@ -51,11 +128,11 @@ class Sw5LibDependencyBuilderTest {
     @Test
     void testBuildMethodDependencyMapChar16Vector2() throws IOException {
         final Sw5LibReader libReader = TestData.getLibReader();
-        final ClassNode subsidiaryClassNode =
+        final Sw5ClassInfo subsidiaryClass =
             libReader.getClassByName(TestData.SUBSIDIARY_CLASS_CHAR16_VECTOR + ".class");
 
-        final Map<MethodNode, MethodNode> methodDependencyMap =
-            Sw5LibDependencyBuilder.buildMethodDependencyMap(subsidiaryClassNode, subsidiaryClassNode);
+        final Map<Sw5MethodInfo, Sw5MethodInfo> methodDependencyMap =
+            Sw5LibDependencyBuilder.buildMethodDependencyMap(subsidiaryClass, subsidiaryClass);
         this.assertMappingContainsOnly(
             methodDependencyMap,
             Map.entry("__loopbody_", "char16_vector__method1"));
@@ -64,11 +141,11 @@ class Sw5LibDependencyBuilderTest {
     @Test
     void testBuildMethodDependencyMapMixed1() throws IOException {
         final Sw5LibReader libReader = TestData.getLibReader();
-        final ClassNode primaryClassNode = libReader.getClassByName(TestData.PRIMARY_CLASS_MIXED + ".class");
-        final ClassNode subsidiaryClassNode = libReader.getClassByName(TestData.SUBSIDIARY_CLASS_MIXED + ".class");
+        final Sw5ClassInfo primaryClass = libReader.getClassByName(TestData.PRIMARY_CLASS_MIXED + ".class");
+        final Sw5ClassInfo subsidiaryClass = libReader.getClassByName(TestData.SUBSIDIARY_CLASS_MIXED + ".class");
 
-        final Map<MethodNode, MethodNode> methodDependencyMap =
-            Sw5LibDependencyBuilder.buildMethodDependencyMap(primaryClassNode, subsidiaryClassNode);
+        final Map<Sw5MethodInfo, Sw5MethodInfo> methodDependencyMap =
+            Sw5LibDependencyBuilder.buildMethodDependencyMap(primaryClass, subsidiaryClass);
         this.assertMappingContainsOnly(
             methodDependencyMap,
             Map.entry("proc__name_", "execute"),
@@ -87,10 +164,10 @@ class Sw5LibDependencyBuilderTest {
     @Test
     void testBuildMethodDependencyMapMixed2() throws IOException {
         final Sw5LibReader libReader = TestData.getLibReader();
-        final ClassNode subsidiaryClassNode = libReader.getClassByName(TestData.SUBSIDIARY_CLASS_MIXED + ".class");
+        final Sw5ClassInfo subsidiaryClass = libReader.getClassByName(TestData.SUBSIDIARY_CLASS_MIXED + ".class");
 
-        final Map<MethodNode, MethodNode> methodDependencyMap =
-            Sw5LibDependencyBuilder.buildMethodDependencyMap(subsidiaryClassNode, subsidiaryClassNode);
+        final Map<Sw5MethodInfo, Sw5MethodInfo> methodDependencyMap =
+            Sw5LibDependencyBuilder.buildMethodDependencyMap(subsidiaryClass, subsidiaryClass);
         this.assertMappingContainsOnly(
             methodDependencyMap,
             Map.entry("proc___", "symbol__with_suffix"),
@@ -101,11 +178,11 @@ class Sw5LibDependencyBuilderTest {
     @Test
     void testBuildMethodDependencyMapPrimary() throws IOException {
         final Sw5LibReader libReader = TestData.getLibReader();
-        final ClassNode primaryClassNode = libReader.getClassByName(TestData.PRIMARY_CLASS_PRIMARY + ".class");
-        final ClassNode subsidiaryClassNode = null;
+        final Sw5ClassInfo primaryClass = libReader.getClassByName(TestData.PRIMARY_CLASS_PRIMARY + ".class");
+        final Sw5ClassInfo subsidiaryClass = null;
 
-        final Map<MethodNode, MethodNode> methodDependencyMap =
-            Sw5LibDependencyBuilder.buildMethodDependencyMap(primaryClassNode, subsidiaryClassNode);
+        final Map<Sw5MethodInfo, Sw5MethodInfo> methodDependencyMap =
+            Sw5LibDependencyBuilder.buildMethodDependencyMap(primaryClass, subsidiaryClass);
         assertThat(methodDependencyMap)
             .isEmpty();
     }
@@ -0,0 +1,137 @@
+package nl.ramsolutions.sw.magik.jacoco.sw5lib;
+
+import nl.ramsolutions.sw.magik.jacoco.TestData;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for Sw5LibNameExtractor.
+ */
+class Sw5LibNameExtractorTest {
+
+    @Test
+    void testExtractMethodNames() throws IOException {
+        final Sw5LibReader libReader = TestData.getLibReader();
+        final Sw5ClassInfo classInfo = libReader.getPrimaryClasses().stream()
+            .filter(classInfo_ -> classInfo_.getName().equals(TestData.PRIMARY_CLASS_CHAR16_VECTOR))
+            .findAny()
+            .orElseThrow();
+        final Sw5MethodInfo methodInfo = classInfo.getMethod("execute");
+
+        final String subsidiaryClassName = TestData.SUBSIDIARY_CLASS_CHAR16_VECTOR.replaceAll("/", ".");
+        final Map<String, String> methodNames = methodInfo.getMethodNames();
+        assertThat(methodNames)
+            .containsOnly(
+                Map.entry(
+                    subsidiaryClassName + ".char16_vector__method1",
+                    "char16_vector.method1()"),
+                Map.entry(
+                    subsidiaryClassName + ".char16_vector__method2",
+                    "char16_vector.method2()"),
+                Map.entry(
+                    subsidiaryClassName + ".char16_vector__method3?",
+                    "char16_vector.method3?()"));
+    }
+
+    @Test
+    void testExtractMethodAndProcNamesSinglePass() {
+        final Sw5LibNameExtractor extractor = new Sw5LibNameExtractor(null);
+        final Type javaType = Type.getObjectType("magik/test/Subsidiary");
+        final Handle procHandle = new Handle(
+            Opcodes.H_INVOKESTATIC,
+            "com/gesmallworld/magik/language/invokers/ConstantBuilder",
+            "bootstrap",
+            "()V",
+            false);
+
+        // LDC run interrupted by another instruction: only the last run counts.
+        extractor.visitLdcInsn("ignored");
+        extractor.visitInsn(Opcodes.ICONST_0);
+        extractor.visitLdcInsn("exemplar");
+        extractor.visitLdcInsn("method()");
+        extractor.visitLdcInsn(javaType);
+        extractor.visitLdcInsn("exemplar__method");
+        extractor.visitMethodInsn(
+            Opcodes.INVOKESTATIC,
+            "com/gesmallworld/magik/language/utils/MagikObjectUtils",
+            "createMethod",
+            "()V",
+            false);
+        extractor.visitInvokeDynamicInsn("proc", "()V", procHandle, javaType, "proc1", "my_proc");
+        extractor.visitInvokeDynamicInsn("proc", "()V", procHandle, javaType, "proc2", "");
+
+        assertThat(extractor.getMethodNames())
+            .containsOnly(Map.entry("magik.test.Subsidiary.exemplar__method", "exemplar.method()"));
+        assertThat(extractor.getProcNames())
+            .containsOnly(
+                Map.entry("magik.test.Subsidiary.proc1", "@my_proc"),
+                Map.entry("magik.test.Subsidiary.proc2", "@__anonymous_proc__"));
+    }
+
+    @Test
+    void testExtractMethodNameUnexpectedArguments() {
+        final Sw5LibNameExtractor extractor = new Sw5LibNameExtractor(null);
+        extractor.visitLdcInsn("exemplar");
+        extractor.visitLdcInsn("method()");
+
+        assertThatThrownBy(() -> extractor.visitMethodInsn(
+                Opcodes.INVOKESTATIC,
+                "com/gesmallworld/magik/language/utils/MagikObjectUtils",
+                "createMethod",
+                "()V",
+                false))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static void visitCreateMethod(final Sw5LibNameExtractor extractor, final String magikMethod) {
+        extractor.visitLdcInsn("exemplar");
+        extractor.visitLdcInsn(magikMethod);
+        extractor.visitLdcInsn(Type.getObjectType("magik/test/Subsidiary"));
+        extractor.visitLdcInsn("exemplar__method");
+        extractor.visitMethodInsn(
+            Opcodes.INVOKESTATIC,
+            "com/gesmallworld/magik/language/utils/MagikObjectUtils",
+            "createMethod",
+            "()V",
+            false);
+    }
+
+    @Test
+    void testExtractMethodNameDuplicate() {
+        final Sw5LibNameExtractor extractor = new Sw5LibNameExtractor(null);
+        Sw5LibNameExtractorTest.visitCreateMethod(extractor, "method()");
+
+        // Same LDC run again, a duplicate Java name is rejected.
+        assertThatThrownBy(() -> Sw5LibNameExtractorTest.visitCreateMethod(extractor, "method()"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Duplicate Java name: magik.test.Subsidiary.exemplar__method "
+                + "(exemplar.method() and exemplar.method())");
+    }
+
+    @Test
+    void testExtractProcNameDuplicate() {
+        final Sw5LibNameExtractor extractor = new Sw5LibNameExtractor(null);
+        final Type javaType = Type.getObjectType("magik/test/Subsidiary");
+        final Handle procHandle = new Handle(
+            Opcodes.H_INVOKESTATIC,
+            "com/gesmallworld/magik/language/invokers/ConstantBuilder",
+            "bootstrap",
+            "()V",
+            false);
+        extractor.visitInvokeDynamicInsn("proc", "()V", procHandle, javaType, "proc1", "my_proc");
+
+        assertThatThrownBy(() -> extractor.visitInvokeDynamicInsn(
+                "proc", "()V", procHandle, javaType, "proc1", "other_proc"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Duplicate Java name: magik.test.Subsidiary.proc1 (@my_proc and @other_proc)");
+    }
+
+}
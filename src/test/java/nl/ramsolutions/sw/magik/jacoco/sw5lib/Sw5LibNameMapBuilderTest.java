@@ -0,0 +1,87 @@
+package nl.ramsolutions.sw.magik.jacoco.sw5lib;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for Sw5LibNameMapBuilder.
+ */
+class Sw5LibNameMapBuilderTest {
+
+    private static Sw5ClassInfo createPrimaryClass(final String className, final Map<String, String> methodNames) {
+        final Sw5MethodInfo executeMethod = new Sw5MethodInfo("execute", true, null, methodNames, Map.of());
+        return new Sw5ClassInfo(className, "Primary", null, List.of(executeMethod));
+    }
+
+    private static Map<String, String> buildMethodNameMap(
+            final List<Sw5ClassInfo> primaryClasses,
+            final List<Sw5ClassInfo> subsidiaryClasses) {
+        return Sw5LibNameMapBuilder.buildMethodNameMap(primaryClasses, subsidiaryClasses, 2).entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().getName()));
+    }
+
+    @Test
+    void testBuildMethodNameMapDuplicates() {
+        final List<Sw5ClassInfo> primaryClasses = List.of(
+            Sw5LibNameMapBuilderTest.createPrimaryClass("magik/a_1", Map.of("a.b", "x.y()", "a.c", "x.z()")),
+            Sw5LibNameMapBuilderTest.createPrimaryClass("magik/a_3", Map.of("a.b", "x.q()", "a.d", "x.z()")),
+            Sw5LibNameMapBuilderTest.createPrimaryClass("magik/a_5", Map.of("a.c", "x.z()")));
+
+        // Duplicates are rejected, also when mapped to the same Magik name.
+        assertThatThrownBy(() -> Sw5LibNameMapBuilderTest.buildMethodNameMap(primaryClasses, List.of()))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Duplicate Java names for: [a.b, a.c]");
+    }
+
+    @Test
+    void testBuildMethodNameMapSubsidiaryProcsOverride() {
+        final List<Sw5ClassInfo> primaryClasses = List.of(
+            Sw5LibNameMapBuilderTest.createPrimaryClass("magik/a_1", Map.of("a.b", "x.y()")));
+        final Sw5MethodInfo procMethod = new Sw5MethodInfo("m", false, null, Map.of(), Map.of("a.b", "@p"));
+        final List<Sw5ClassInfo> subsidiaryClasses = List.of(
+            new Sw5ClassInfo("magik/a_2", "Subsidiary", null, List.of(procMethod)));
+
+        final Map<String, String> methodNameMap =
+            Sw5LibNameMapBuilderTest.buildMethodNameMap(primaryClasses, subsidiaryClasses);
+        assertThat(methodNameMap).containsOnly(Map.entry("a.b", "@p"));
+    }
+
+    @Test
+    void testBuildMethodNameMapDuplicatesOverridden() {
+        final List<Sw5ClassInfo> primaryClasses = List.of(
+            Sw5LibNameMapBuilderTest.createPrimaryClass("magik/a_1", Map.of("a.b", "x.y()")),
+            Sw5LibNameMapBuilderTest.createPrimaryClass("magik/a_3", Map.of("a.b", "x.z()")));
+        final Sw5MethodInfo procMethod = new Sw5MethodInfo("m", false, null, Map.of(), Map.of("a.b", "@p"));
+        final List<Sw5ClassInfo> subsidiaryClasses = List.of(
+            new Sw5ClassInfo("magik/a_2", "Subsidiary", null, List.of(procMethod)));
+
+        // Duplicates within a mapping are rejected, also when overridden by a later mapping.
+        assertThatThrownBy(() -> Sw5LibNameMapBuilderTest.buildMethodNameMap(primaryClasses, subsidiaryClasses))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Duplicate Java names for: [a.b]");
+    }
+
+    @Test
+    void testBuildMethodNameMap() {
+        final List<Sw5ClassInfo> primaryClasses = List.of(
+            Sw5LibNameMapBuilderTest.createPrimaryClass("magik/a_1", Map.of("a.b", "x.y()")),
+            Sw5LibNameMapBuilderTest.createPrimaryClass("magik/a_3", Map.of("a.c", "x.z()")));
+        final Sw5MethodInfo procMethod = new Sw5MethodInfo("m", false, null, Map.of(), Map.of("a.d", "@p"));
+        final List<Sw5ClassInfo> subsidiaryClasses = List.of(
+            new Sw5ClassInfo("magik/a_2", "Subsidiary", null, List.of(procMethod)));
+
+        final Map<String, String> methodNameMap =
+            Sw5LibNameMapBuilderTest.buildMethodNameMap(primaryClasses, subsidiaryClasses);
+        assertThat(methodNameMap).containsOnly(
+            Map.entry("a.b", "x.y()"),
+            Map.entry("a.c", "x.z()"),
+            Map.entry("a.d", "@p"));
+    }
+
+}
@@ -2,14 +2,22 @@ package nl.ramsolutions.sw.magik.jacoco.sw5lib;
 
 import nl.ramsolutions.sw.magik.jacoco.TestData;
 import org.junit.jupiter.api.Test;
-import org.objectweb.asm.tree.ClassNode;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Tests for Sw5LibReader.
@@ -18,41 +26,153 @@ class Sw5LibReaderTest {
 
     @SuppressWarnings("checkstyle:MagicNumber")
     @Test
-    void testGetPrimaryClassNodes() throws IOException {
+    void testGetPrimaryClasses() throws IOException {
         final Sw5LibReader libReader = TestData.getLibReader();
-        final Collection<ClassNode> primaryClassNodes = libReader.getPrimaryClassNodes();
-        assertThat(primaryClassNodes).hasSize(3);
-        final Set<String> classNodeNames = primaryClassNodes.stream()
-            .map(classNode -> classNode.name)
+        final Collection<Sw5ClassInfo> primaryClasses = libReader.getPrimaryClasses();
+        assertThat(primaryClasses).hasSize(3);
+        final Set<String> classNames = primaryClasses.stream()
+            .map(Sw5ClassInfo::getName)
             .collect(Collectors.toSet());
-        assertThat(classNodeNames).containsOnly(
+        assertThat(classNames).containsOnly(
             TestData.PRIMARY_CLASS_CHAR16_VECTOR,
             TestData.PRIMARY_CLASS_MIXED,
             TestData.PRIMARY_CLASS_PRIMARY);
     }
 
     @Test
-    void testGetSubsidiaryClassNodes() throws IOException {
+    void testGetSubsidiaryClasses() throws IOException {
         final Sw5LibReader libReader = TestData.getLibReader();
-        final Collection<ClassNode> subsidiaryClassNodes = libReader.getSubsidiaryClassNodes();
-        assertThat(subsidiaryClassNodes).hasSize(2);
-        final Set<String> classNodeNames = subsidiaryClassNodes.stream()
-            .map(classNode -> classNode.name)
+        final Collection<Sw5ClassInfo> subsidiaryClasses = libReader.getSubsidiaryClasses();
+        assertThat(subsidiaryClasses).hasSize(2);
+        final Set<String> classNames = subsidiaryClasses.stream()
+            .map(Sw5ClassInfo::getName)
             .collect(Collectors.toSet());
-        assertThat(classNodeNames).containsOnly(
+        assertThat(classNames).containsOnly(
             TestData.SUBSIDIARY_CLASS_CHAR16_VECTOR,
             TestData.SUBSIDIARY_CLASS_MIXED);
     }
 
+    @Test
+    void testGetClassDependencyMap() throws IOException {
+        final Sw5LibReader libReader = TestData.getLibReader();
+        final Map<String, String> classNames = libReader.getClassDependencyMap().entrySet().stream()
+            .collect(Collectors.toMap(
+                entry -> entry.getKey().getName(),
+                entry -> entry.getValue().getName()));
+        assertThat(classNames).containsOnly(
+            Map.entry(TestData.PRIMARY_CLASS_CHAR16_VECTOR, TestData.SUBSIDIARY_CLASS_CHAR16_VECTOR),
+            Map.entry(TestData.PRIMARY_CLASS_MIXED, TestData.SUBSIDIARY_CLASS_MIXED));
+        assertThat(libReader.getRegularClasses()).isEmpty();
+    }
+
     @Test
     void testGetClassByName() throws IOException {
         final Sw5LibReader libReader = TestData.getLibReader();
-        final ClassNode classNode = libReader.getClassByName(TestData.PRIMARY_CLASS_CHAR16_VECTOR + ".class");
-        assertThat(classNode).isNotNull();
+        final Sw5ClassInfo classInfo = libReader.getClassByName(TestData.PRIMARY_CLASS_CHAR16_VECTOR + ".class");
+        assertThat(classInfo).isNotNull();
 
-        final ClassNode classNodeUnexisting =
+        final Sw5ClassInfo classInfoUnexisting =
             libReader.getClassByName(TestData.CLASS_DOES_NOT_EXIST + ".class");
-        assertThat(classNodeUnexisting).isNull();
+        assertThat(classInfoUnexisting).isNull();
+    }
+
+    @Test
+    void testGetSubsidiaryClassName() throws IOException {
+        final Sw5LibReader libReader = TestData.getLibReader();
+        final Sw5ClassInfo primaryClass = libReader.getClassByName(TestData.PRIMARY_CLASS_MIXED + ".class");
+        assertThat(primaryClass).isNotNull();
+        assertThat(primaryClass.getSubsidiaryClassName()).isEqualTo(TestData.SUBSIDIARY_CLASS_MIXED);
+        assertThat(primaryClass.getExecuteMethod().getName()).isEqualTo("execute");
+        assertThat(primaryClass.getMethod("execute")).isSameAs(primaryClass.getExecuteMethod());
+        assertThat(primaryClass.getMethodSafe("does_not_exist")).isNull();
+
+        final Sw5ClassInfo subsidiaryClass = libReader.getClassByName(TestData.SUBSIDIARY_CLASS_MIXED + ".class");
+        assertThat(subsidiaryClass).isNotNull();
+        assertThatThrownBy(subsidiaryClass::getExecuteMethod)
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @SuppressWarnings("checkstyle:MagicNumber")
+    @Test
+    void testThreadsGiveSameResult() throws IOException {
+        final Sw5LibReaderOptions singleOptions = new Sw5LibReaderOptions();
+        singleOptions.setThreads(1);
+        final Sw5LibReader libReaderSingle = new Sw5LibReader(TestData.PRODUCT_PATHS, singleOptions);
+        final Sw5LibReaderOptions multipleOptions = new Sw5LibReaderOptions();
+        multipleOptions.setThreads(4);
+        final Sw5LibReader libReaderMultiple = new Sw5LibReader(TestData.PRODUCT_PATHS, multipleOptions);
+        final Set<String> classNamesSingle = libReaderSingle.getPrimaryClasses().stream()
+            .map(Sw5ClassInfo::getName)
+            .collect(Collectors.toSet());
+        final Set<String> classNamesMultiple = libReaderMultiple.getPrimaryClasses().stream()
+            .map(Sw5ClassInfo::getName)
+            .collect(Collectors.toSet());
+        assertThat(classNamesMultiple).isEqualTo(classNamesSingle);
+    }
+
+    @Test
+    void testTouchedOnly() throws IOException {
+        final Set<String> touchedClassNames = Set.of(TestData.SUBSIDIARY_CLASS_MIXED);
+        final Sw5LibReaderOptions options = new Sw5LibReaderOptions();
+        options.setTouchedClassNames(touchedClassNames);
+        final Sw5LibReader libReader = new Sw5LibReader(TestData.PRODUCT_PATHS, options);
+        final Set<String> primaryClassNames = libReader.getPrimaryClasses().stream()
+            .map(Sw5ClassInfo::getName)
+            .collect(Collectors.toSet());
+        assertThat(primaryClassNames).containsOnly(TestData.PRIMARY_CLASS_MIXED);
+        final Set<String> subsidiaryClassNames = libReader.getSubsidiaryClasses().stream()
+            .map(Sw5ClassInfo::getName)
+            .collect(Collectors.toSet());
+        assertThat(subsidiaryClassNames).containsOnly(TestData.SUBSIDIARY_CLASS_MIXED);
+        assertThat(libReader.getClassByName(TestData.PRIMARY_CLASS_PRIMARY + ".class")).isNull();
+    }
+
+    @Test
+    void testMagikOnly(@TempDir final Path productPath) throws IOException {
+        // Lib with a Magik and a non-Magik class.
+        final Path libsPath = Files.createDirectories(productPath.resolve("libs"));
+        final String magikEntryName = TestData.PRIMARY_CLASS_PRIMARY + ".class";
+        final byte[] bytecode;
+        try (ZipFile zipFile = new ZipFile(TestData.PRODUCT_PATH.resolve("libs/fixture_product.fixture_module.1.jar")
+                .toFile())) {
+            bytecode = zipFile.getInputStream(zipFile.getEntry(magikEntryName)).readAllBytes();
+        }
+        try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(libsPath.resolve("mixed.jar")))) {
+            for (final String entryName : List.of(magikEntryName, "com/example/Shaded.class")) {
+                output.putNextEntry(new ZipEntry(entryName));
+                output.write(bytecode);
+                output.closeEntry();
+            }
+        }
+
+        final Sw5LibReader libReader = new Sw5LibReader(List.of(productPath));
+        final Sw5LibReaderOptions magikOptions = new Sw5LibReaderOptions();
+        magikOptions.setMagikOnly(true);
+        final Sw5LibReader magikLibReader = new Sw5LibReader(List.of(productPath), magikOptions);
+
+        assertThat(libReader.getClassByName(magikEntryName)).isNotNull();
+        assertThat(libReader.getClassByName("com/example/Shaded.class")).isNotNull();
+        assertThat(magikLibReader.getClassByName(magikEntryName)).isNotNull();
+        assertThat(magikLibReader.getClassByName("com/example/Shaded.class")).isNull();
+    }
+
+    @Test
+    void testBrokenLibIsReported(@TempDir final Path productPath) throws IOException {
+        final Path libsPath = Files.createDirectories(productPath.resolve("libs"));
+        final Path brokenLibPath = Files.writeString(libsPath.resolve("broken.jar"), "not a jar");
+
+        final Sw5LibReaderOptions options = new Sw5LibReaderOptions();
+        options.setThreads(2);
+        assertThatThrownBy(() -> new Sw5LibReader(List.of(productPath), options))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining(brokenLibPath.toString());
+    }
+
+    @Test
+    void testInvalidThreads() {
+        final Sw5LibReaderOptions options = new Sw5LibReaderOptions();
+        assertThatThrownBy(() -> options.setThreads(0))
+            .isInstanceOf(IllegalArgumentException.class);
     }
 
 }